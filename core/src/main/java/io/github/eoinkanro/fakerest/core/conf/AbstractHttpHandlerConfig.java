@@ -7,6 +7,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.experimental.SuperBuilder;
 
+import java.util.List;
 import java.util.UUID;
 
 @Getter
@@ -17,13 +18,45 @@ import java.util.UUID;
 public abstract class AbstractHttpHandlerConfig {
 
     private String id;
+    /**
+     * Namespace of listeners serving the handler, handlers without it are served by mock port.
+     * Handlers of different namespaces can have the same method and path
+     */
+    @EqualsAndHashCode.Include
+    private String namespace;
     @EqualsAndHashCode.Include
     private String path;
     @EqualsAndHashCode.Include
     private HttpMethod method;
+    /**
+     * How path is matched, {@link HttpHandlerPathType#TEMPLATE} if not set
+     */
+    private HttpHandlerPathType pathType;
+    /**
+     * Order of GLOB and REGEX handlers matching the same path, higher is checked first
+     */
+    private int priority;
+    /**
+     * Conditions on request, all of them must match. Handlers with the same method and path
+     * but different matchers are chosen by request
+     */
+    @EqualsAndHashCode.Include
+    private List<HttpRequestMatcherConfig> matchers;
+    /**
+     * Delay of responses, no delay if not set
+     */
+    private HttpHandlerLatencyConfig latency;
+    /**
+     * Limits of bandwidth and concurrency, not limited if not set
+     */
+    private HttpHandlerThrottleConfig throttle;
 
     public abstract HttpHandlerType getType();
 
+    public boolean hasMatchers() {
+        return matchers != null && !matchers.isEmpty();
+    }
+
     public void initId() {
         if (id == null || id.isBlank()) {
             id = UUID.randomUUID().toString();
@@ -2,6 +2,7 @@ package io.github.eoinkanro.fakerest.core.conf;
 
 import lombok.*;
 
+import java.util.List;
 import java.util.Set;
 
 @Getter
@@ -17,6 +18,59 @@ public class Config {
     @Builder.Default
     private int uiPort = 8080;
 
+    /**
+     * If false mock server starts before all handlers are created and
+     * responds 503 to not yet registered paths while they are loading
+     */
+    @Builder.Default
+    private boolean awaitHandlersOnStartup = true;
+
+    /**
+     * Handle mock requests on virtual threads, requires Java 21.
+     * Pool sizes are ignored in this mode
+     */
+    private boolean useVirtualThreads;
+
+    /**
+     * Min and max size of platform thread pool of mock server
+     */
+    @Builder.Default
+    private int minThreads = 8;
+    @Builder.Default
+    private int maxThreads = 250;
+
+    /**
+     * Serve HTTP/2 on mock port besides HTTP/1.1. It's negotiated by ALPN over TLS,
+     * cleartext h2c is used by prior knowledge or by upgrade of HTTP/1.1 request
+     */
+    private boolean http2;
+
+    /**
+     * Serve mock port over TLS. If key store isn't set, a self-signed certificate
+     * for localhost is generated once and kept in app dir
+     */
+    private boolean tls;
+    private String tlsKeyStorePath;
+    private String tlsKeyStorePassword;
+
+    /**
+     * Max number of concurrent HTTP/2 streams of a connection, clients queue the rest
+     */
+    @Builder.Default
+    private int http2MaxConcurrentStreams = 128;
+
+    /**
+     * Max number of open connections of all mock listeners, not limited if not positive.
+     * Mock server stops accepting at the limit, new connections wait in accept queue
+     */
+    private int maxConnections;
+
+    /**
+     * Listeners of mock server besides mock port. Mock port serves handlers without namespace
+     * unless a listener of it is set for any host
+     */
+    private List<MockListenerConfig> listeners;
+
     private Set<AbstractHttpHandlerConfig> handlers;
 
 }
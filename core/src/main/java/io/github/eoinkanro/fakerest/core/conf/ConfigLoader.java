@@ -1,11 +1,21 @@
 package io.github.eoinkanro.fakerest.core.conf;
 
+import io.github.eoinkanro.fakerest.core.handler.HttpHandler;
 import io.github.eoinkanro.fakerest.core.handler.HttpHandlerFactory;
 import io.github.eoinkanro.fakerest.core.handler.HttpHandlerRegistry;
-import io.github.eoinkanro.fakerest.core.handler.RegisterException;
+import io.github.eoinkanro.fakerest.core.handler.HttpHandlerRegistryBatch;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 @Slf4j
 @RequiredArgsConstructor
 public abstract class ConfigLoader implements Initializable {
@@ -13,27 +23,98 @@ public abstract class ConfigLoader implements Initializable {
     private final HttpHandlerRegistry registry;
     private final HttpHandlerFactory factory;
 
+    private final CountDownLatch handlersReady = new CountDownLatch(1);
+
     @Override
     public void init() {
         try {
             Config config = loadOrGetCached();
             if (config == null || config.getHandlers() == null) {
+                handlersReady.countDown();
                 return;
             }
 
-            config.getHandlers().forEach(conf -> {
-                try {
-                    conf.initId();
-                    registry.register(factory.create(conf));
-                } catch (RegisterException e) {
-                    log.warn("Cant register handler from config", e);
-                }
-            });
+            if (config.isAwaitHandlersOnStartup()) {
+                initHandlers(config.getHandlers());
+            } else {
+                Thread thread = new Thread(() -> initHandlers(config.getHandlers()), "handlers-init");
+                thread.setDaemon(true);
+                thread.start();
+            }
         } catch (Exception e) {
+            handlersReady.countDown();
             log.error("Cant init config", e);
         }
     }
 
+    /**
+     * @return true if all handlers from config were created and registered
+     */
+    public boolean isReady() {
+        return handlersReady.getCount() == 0;
+    }
+
+    public void awaitReady() throws InterruptedException {
+        handlersReady.await();
+    }
+
+    /**
+     * Create handlers in parallel, because creating a groovy handler compiles its script,
+     * and register them in one batch, so mock server sees either none or all of them.
+     * A handler that can't be created or registered is skipped
+     *
+     * @param handlerConfigs configs of handlers
+     */
+    private void initHandlers(Set<AbstractHttpHandlerConfig> handlerConfigs) {
+        long start = System.nanoTime();
+        int threads = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), handlerConfigs.size()));
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        int registered = 0;
+        try {
+            List<AbstractHttpHandlerConfig> configs = new ArrayList<>(handlerConfigs);
+            List<Future<HttpHandler>> futures = new ArrayList<>(configs.size());
+            for (AbstractHttpHandlerConfig conf : configs) {
+                conf.initId();
+                futures.add(executor.submit(() -> factory.create(conf)));
+            }
+
+            List<HttpHandler> handlers = new ArrayList<>(configs.size());
+            for (int i = 0; i < configs.size(); i++) {
+                AbstractHttpHandlerConfig conf = configs.get(i);
+                try {
+                    handlers.add(futures.get(i).get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (ExecutionException e) {
+                    log.warn("Cant create handler {} {} from config", conf.getMethod(), conf.getPath(), e.getCause());
+                }
+            }
+
+            registered = register(handlers);
+        } finally {
+            executor.shutdownNow();
+            handlersReady.countDown();
+            log.info("Registered {} of {} handlers in {} ms", registered, handlerConfigs.size(),
+                (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    private int register(List<HttpHandler> handlers) {
+        HttpHandlerRegistryBatch batch = new HttpHandlerRegistryBatch();
+        handlers.forEach(batch::register);
+
+        List<HttpHandler> rejected = new ArrayList<>();
+        registry.applyValid(batch, (handler, e) -> {
+            rejected.add(handler);
+            log.warn("Cant register handler {} {} from config: {}",
+                handler.getConfig().getMethod(),
+                handler.getConfig().getPath(),
+                e.getMessage());
+        });
+        return handlers.size() - rejected.size();
+    }
+
     public abstract void save(Config config) throws SaveConfigException;
 
     public abstract Config loadOrGetCached() throws LoadConfigException;
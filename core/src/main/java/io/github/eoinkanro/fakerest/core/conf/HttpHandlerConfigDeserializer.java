@@ -1,8 +1,11 @@
 package io.github.eoinkanro.fakerest.core.conf;
 
+import io.github.eoinkanro.fakerest.core.conf.impl.FileHttpHandlerConfig;
+import io.github.eoinkanro.fakerest.core.conf.impl.GeneratorHttpHandlerConfig;
 import io.github.eoinkanro.fakerest.core.conf.impl.GroovyHttpHandlerConfig;
 import io.github.eoinkanro.fakerest.core.conf.impl.RouterHttpHandlerConfig;
 import io.github.eoinkanro.fakerest.core.conf.impl.StaticHttpHandlerConfig;
+import io.github.eoinkanro.fakerest.core.conf.impl.StreamHttpHandlerConfig;
 import tools.jackson.core.JacksonException;
 import tools.jackson.core.JsonParser;
 import tools.jackson.databind.DeserializationContext;
@@ -32,6 +35,9 @@ public class HttpHandlerConfigDeserializer extends ValueDeserializer<AbstractHtt
             case STATIC -> objectMapper.treeToValue(node, StaticHttpHandlerConfig.class);
             case GROOVY -> objectMapper.treeToValue(node, GroovyHttpHandlerConfig.class);
             case ROUTER -> objectMapper.treeToValue(node, RouterHttpHandlerConfig.class);
+            case FILE -> objectMapper.treeToValue(node, FileHttpHandlerConfig.class);
+            case STREAM -> objectMapper.treeToValue(node, StreamHttpHandlerConfig.class);
+            case GENERATOR -> objectMapper.treeToValue(node, GeneratorHttpHandlerConfig.class);
         };
     }
 
@@ -0,0 +1,37 @@
+package io.github.eoinkanro.fakerest.core.conf;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Delay of response, a new one is drawn from distribution for every request.
+ * <ul>
+ *     <li>FIXED uses millis</li>
+ *     <li>UNIFORM uses minMillis and maxMillis</li>
+ *     <li>NORMAL and LOG_NORMAL use meanMillis and stdDevMillis</li>
+ *     <li>PERCENTILES uses percentiles, delays between them are interpolated</li>
+ * </ul>
+ * minMillis and maxMillis also limit delays of other distributions if set
+ */
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HttpHandlerLatencyConfig {
+
+    private HttpHandlerLatencyType type;
+    private Double millis;
+    private Double minMillis;
+    private Double maxMillis;
+    private Double meanMillis;
+    private Double stdDevMillis;
+    /**
+     * Percentile to delay in millis, like {@code {"50": 20, "99": 150, "99.9": 400}}
+     */
+    private Map<Double, Double> percentiles;
+
+}
@@ -0,0 +1,11 @@
+package io.github.eoinkanro.fakerest.core.conf;
+
+public enum HttpHandlerLatencyType {
+
+    FIXED,
+    UNIFORM,
+    NORMAL,
+    LOG_NORMAL,
+    PERCENTILES
+
+}
@@ -0,0 +1,30 @@
+package io.github.eoinkanro.fakerest.core.conf;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Emulation of a slow link or an overloaded endpoint. Every limit is off if not positive
+ */
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HttpHandlerThrottleConfig {
+
+    /**
+     * Max bandwidth of one response body
+     */
+    private long bytesPerSecond;
+    /**
+     * Delay between headers and the first byte of body
+     */
+    private long bodyDelayMillis;
+    /**
+     * Max number of requests handled and written at once, extra requests get 503
+     */
+    private int maxConcurrentRequests;
+
+}
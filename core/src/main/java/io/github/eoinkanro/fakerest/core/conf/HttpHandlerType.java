@@ -4,6 +4,9 @@ public enum HttpHandlerType {
 
     STATIC,
     GROOVY,
-    ROUTER
+    ROUTER,
+    FILE,
+    STREAM,
+    GENERATOR
 
 }
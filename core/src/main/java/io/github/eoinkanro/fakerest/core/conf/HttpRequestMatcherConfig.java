@@ -0,0 +1,28 @@
+package io.github.eoinkanro.fakerest.core.conf;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+/**
+ * Condition on request which handler requires besides method and path.
+ * Exactly one of equalTo and regex must be set
+ */
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode
+public class HttpRequestMatcherConfig {
+
+    private HttpRequestMatcherSource source;
+    /**
+     * Header name, query param name or JSON pointer of body field like {@code /user/type}
+     */
+    private String name;
+    private String equalTo;
+    private String regex;
+
+}
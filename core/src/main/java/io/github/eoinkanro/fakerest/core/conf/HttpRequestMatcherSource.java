@@ -0,0 +1,9 @@
+package io.github.eoinkanro.fakerest.core.conf;
+
+public enum HttpRequestMatcherSource {
+
+    HEADER,
+    QUERY,
+    BODY
+
+}
@@ -0,0 +1,33 @@
+package io.github.eoinkanro.fakerest.core.conf;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Additional listener of mock server. Requests to its port, and with one of its hosts if they are set,
+ * are handled by handlers of its namespace. Listeners share threads and handlers cache of mock server
+ */
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MockListenerConfig {
+
+    /**
+     * Port of listener, mock port if not set
+     */
+    private Integer port;
+    /**
+     * Values of Host header without port, matched ignoring case. Any host matches if not set
+     */
+    private List<String> hosts;
+    /**
+     * Namespace of handlers, handlers without namespace are used if not set
+     */
+    private String namespace;
+
+}
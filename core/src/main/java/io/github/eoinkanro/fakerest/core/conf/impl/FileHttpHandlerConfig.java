@@ -0,0 +1,30 @@
+package io.github.eoinkanro.fakerest.core.conf.impl;
+
+import io.github.eoinkanro.fakerest.core.conf.AbstractHttpHandlerConfig;
+import io.github.eoinkanro.fakerest.core.conf.HttpHandlerType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.experimental.SuperBuilder;
+
+@Getter
+@SuperBuilder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FileHttpHandlerConfig extends AbstractHttpHandlerConfig {
+
+    /**
+     * Absolute path or path relative to working directory
+     */
+    private String filePath;
+    /**
+     * Detected by file name if not set
+     */
+    private String contentType;
+
+    @Override
+    public HttpHandlerType getType() {
+        return HttpHandlerType.FILE;
+    }
+
+}
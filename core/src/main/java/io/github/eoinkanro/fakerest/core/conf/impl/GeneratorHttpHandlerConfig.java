@@ -0,0 +1,56 @@
+package io.github.eoinkanro.fakerest.core.conf.impl;
+
+import io.github.eoinkanro.fakerest.core.conf.AbstractHttpHandlerConfig;
+import io.github.eoinkanro.fakerest.core.conf.HttpHandlerBodyType;
+import io.github.eoinkanro.fakerest.core.conf.HttpHandlerType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.experimental.SuperBuilder;
+
+@Getter
+@SuperBuilder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GeneratorHttpHandlerConfig extends AbstractHttpHandlerConfig {
+
+    private int responseCode;
+    /**
+     * Content type of response, depends on body type if not set
+     */
+    private String responseContentType;
+    /**
+     * How body is generated, {@link HttpHandlerBodyType#PATTERN} if not set
+     */
+    private HttpHandlerBodyType bodyType;
+    /**
+     * Size of {@link HttpHandlerBodyType#PATTERN} and {@link HttpHandlerBodyType#RANDOM} bodies
+     */
+    private long sizeBytes;
+    /**
+     * Text repeated by {@link HttpHandlerBodyType#PATTERN} body
+     */
+    private String pattern;
+    /**
+     * Seed of {@link HttpHandlerBodyType#RANDOM} body, the same seed gives the same bytes
+     */
+    private long seed;
+    /**
+     * Element of {@link HttpHandlerBodyType#JSON_ARRAY} body, {{index}} is replaced with index of element
+     */
+    private String elementTemplate;
+    /**
+     * Number of elements of {@link HttpHandlerBodyType#JSON_ARRAY} body
+     */
+    private long elements;
+    /**
+     * Max bandwidth of one response, not limited if not positive
+     */
+    private long bytesPerSecond;
+
+    @Override
+    public HttpHandlerType getType() {
+        return HttpHandlerType.GENERATOR;
+    }
+
+}
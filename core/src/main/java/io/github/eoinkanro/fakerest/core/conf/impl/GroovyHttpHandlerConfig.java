@@ -14,6 +14,25 @@ import lombok.experimental.SuperBuilder;
 public class GroovyHttpHandlerConfig extends AbstractHttpHandlerConfig {
 
     private String groovyCode;
+    /**
+     * Compile script with @CompileStatic, type errors are thrown on handler creation
+     */
+    private boolean compileStatic;
+    /**
+     * Max wall time of script execution, 0 means no limit
+     */
+    private long timeoutMillis;
+    /**
+     * Max bytes allocated by script execution, 0 means no limit. Allocations aren't measured
+     * on virtual threads and on JVMs without thread allocation measurement, the limit is
+     * ignored there with a warning
+     */
+    private long maxAllocatedBytes;
+    /**
+     * Response code when execution is aborted, 503 if not set
+     */
+    private int abortResponseCode;
+    private String abortResponseBody;
 
     @Override
     public HttpHandlerType getType() {
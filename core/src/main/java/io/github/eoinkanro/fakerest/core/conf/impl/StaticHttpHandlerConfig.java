@@ -7,6 +7,9 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.experimental.SuperBuilder;
 
+import java.util.List;
+import java.util.Map;
+
 @Getter
 @SuperBuilder
 @NoArgsConstructor
@@ -15,6 +18,14 @@ public class StaticHttpHandlerConfig extends AbstractHttpHandlerConfig {
 
     private String responseBody;
     private int responseCode;
+    /**
+     * Content type of response body, text/plain if not set
+     */
+    private String responseContentType;
+    /**
+     * All values of every response header
+     */
+    private Map<String, List<String>> responseHeaders;
 
     @Override
     public HttpHandlerType getType() {
@@ -0,0 +1,45 @@
+package io.github.eoinkanro.fakerest.core.conf.impl;
+
+import io.github.eoinkanro.fakerest.core.conf.AbstractHttpHandlerConfig;
+import io.github.eoinkanro.fakerest.core.conf.HttpHandlerType;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.experimental.SuperBuilder;
+
+import java.util.List;
+
+@Getter
+@SuperBuilder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StreamHttpHandlerConfig extends AbstractHttpHandlerConfig {
+
+    private int responseCode;
+    /**
+     * Content type of response, text/event-stream for events and text/plain if not set
+     */
+    private String responseContentType;
+    /**
+     * Chunks in order of writing
+     */
+    private List<String> chunks;
+    /**
+     * Delay before every chunk except the first one
+     */
+    private long intervalMillis;
+    /**
+     * Chunks are repeated until the client disconnects
+     */
+    private boolean loop;
+    /**
+     * Every chunk is written as a server-sent event, every its line becomes a data field
+     */
+    private boolean events;
+
+    @Override
+    public HttpHandlerType getType() {
+        return HttpHandlerType.STREAM;
+    }
+
+}
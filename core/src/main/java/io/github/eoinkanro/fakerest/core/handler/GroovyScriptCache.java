@@ -0,0 +1,15 @@
+package io.github.eoinkanro.fakerest.core.handler;
+
+import groovy.lang.Script;
+
+public interface GroovyScriptCache {
+
+    /**
+     * @param script groovy code
+     * @param compileStatic compile with @CompileStatic
+     * @param interruptible compile with @ThreadInterrupt, so loops and method calls stop when the thread is interrupted
+     * @return compiled script class
+     */
+    Class<? extends Script> compile(String script, boolean compileStatic, boolean interruptible);
+
+}
@@ -4,10 +4,23 @@ import io.github.eoinkanro.fakerest.core.conf.AbstractHttpHandlerConfig;
 import io.github.eoinkanro.fakerest.core.model.HttpRequest;
 import io.github.eoinkanro.fakerest.core.model.HttpResponse;
 
+import java.util.concurrent.CompletableFuture;
+
 public interface HttpHandler {
 
     AbstractHttpHandlerConfig getConfig();
 
     HttpResponse handle(HttpRequest request);
 
+    /**
+     * Handle request without blocking the calling thread while the response is not ready.
+     * By default the request is handled synchronously
+     *
+     * @param request request
+     * @return future with response
+     */
+    default CompletableFuture<HttpResponse> handleAsync(HttpRequest request) {
+        return CompletableFuture.completedFuture(handle(request));
+    }
+
 }
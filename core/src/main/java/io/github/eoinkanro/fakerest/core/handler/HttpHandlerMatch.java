@@ -0,0 +1,18 @@
+package io.github.eoinkanro.fakerest.core.handler;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Handler found for request path and variables extracted from the path by handler path template
+ */
+@Getter
+@RequiredArgsConstructor
+public class HttpHandlerMatch {
+
+    private final HttpHandler handler;
+    private final Map<String, String> pathVariables;
+
+}
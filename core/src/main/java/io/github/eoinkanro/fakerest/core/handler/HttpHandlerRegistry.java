@@ -2,13 +2,88 @@ package io.github.eoinkanro.fakerest.core.handler;
 
 import io.github.eoinkanro.fakerest.core.model.HttpMethod;
 
+import java.util.function.BiConsumer;
+
 public interface HttpHandlerRegistry {
 
     void register(HttpHandler handler) throws RegisterException;
 
-    void unregister(HttpMethod method, String path);
+    /**
+     * Unregister all handlers with method and path
+     *
+     * @param namespace namespace of handler config, null for handlers without it
+     * @param method http method
+     * @param path path of handler config
+     */
+    void unregister(String namespace, HttpMethod method, String path);
+
+    /**
+     * Unregister all handlers without namespace with method and path
+     */
+    default void unregister(HttpMethod method, String path) {
+        unregister(null, method, path);
+    }
+
+    /**
+     * Unregister handler by id, other handlers with the same method and path stay registered
+     *
+     * @param id id of handler
+     */
+    void unregister(String id);
+
+    /**
+     * Validate all changes of batch and publish them at once. Nothing is changed if any
+     * handler of batch can't be registered
+     *
+     * @param batch changes
+     * @throws RegisterException if any handler can't be registered
+     */
+    void apply(HttpHandlerRegistryBatch batch) throws RegisterException;
+
+    /**
+     * Validate handlers of batch one by one against changes of the previous ones, skip handlers
+     * that can't be registered and publish the rest at once
+     *
+     * @param batch changes
+     * @param rejected called with every skipped handler and the reason
+     */
+    void applyValid(HttpHandlerRegistryBatch batch, BiConsumer<HttpHandler, RegisterException> rejected);
+
+    /**
+     * Find handler registered exactly with the path. If several handlers with different
+     * request matchers have the path, returned handler chooses one of them by request
+     *
+     * @param namespace namespace of handler config, null for handlers without it
+     * @param method http method
+     * @param path path of handler config
+     * @return handler or null
+     */
+    HttpHandler find(String namespace, HttpMethod method, String path);
+
+    /**
+     * Find handler without namespace registered exactly with the path
+     */
+    default HttpHandler find(HttpMethod method, String path) {
+        return find(null, method, path);
+    }
+
+    /**
+     * Find handler which path template matches request path. Glob and regex handlers are
+     * checked only if no template matches
+     *
+     * @param namespace namespace of handler config, null for handlers without it
+     * @param method http method
+     * @param path request path
+     * @return handler with path variables or null
+     */
+    HttpHandlerMatch match(String namespace, HttpMethod method, String path);
 
-    HttpHandler find(HttpMethod method, String path);
+    /**
+     * Find handler without namespace which path matches request path
+     */
+    default HttpHandlerMatch match(HttpMethod method, String path) {
+        return match(null, method, path);
+    }
 
     HttpHandler find(String id);
 
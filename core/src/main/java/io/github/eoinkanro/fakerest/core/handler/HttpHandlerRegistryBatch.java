@@ -0,0 +1,47 @@
+package io.github.eoinkanro.fakerest.core.handler;
+
+import io.github.eoinkanro.fakerest.core.model.HttpMethod;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Changes of registry applied together by {@link HttpHandlerRegistry#apply(HttpHandlerRegistryBatch)}.
+ * Handlers are unregistered before handlers are registered
+ */
+@Getter
+public class HttpHandlerRegistryBatch {
+
+    private final List<Unregistration> unregistrations = new ArrayList<>();
+    private final List<String> unregistrationsById = new ArrayList<>();
+    private final List<HttpHandler> registrations = new ArrayList<>();
+
+    public HttpHandlerRegistryBatch unregister(HttpMethod method, String path) {
+        return unregister(null, method, path);
+    }
+
+    public HttpHandlerRegistryBatch unregister(String namespace, HttpMethod method, String path) {
+        unregistrations.add(new Unregistration(namespace, method, path));
+        return this;
+    }
+
+    public HttpHandlerRegistryBatch unregister(String id) {
+        unregistrationsById.add(id);
+        return this;
+    }
+
+    public HttpHandlerRegistryBatch register(HttpHandler handler) {
+        registrations.add(handler);
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return unregistrations.isEmpty() && unregistrationsById.isEmpty() && registrations.isEmpty();
+    }
+
+    public record Unregistration(String namespace, HttpMethod method, String path) {
+
+    }
+
+}
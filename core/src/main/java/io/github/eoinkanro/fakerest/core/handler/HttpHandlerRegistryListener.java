@@ -0,0 +1,17 @@
+package io.github.eoinkanro.fakerest.core.handler;
+
+import io.github.eoinkanro.fakerest.core.model.HttpMethod;
+
+/**
+ * Handler implementing this interface is notified about changes of registry while it is registered
+ */
+public interface HttpHandlerRegistryListener {
+
+    /**
+     * Called once per changed method after handlers were registered or unregistered
+     *
+     * @param method http method of changed handlers
+     */
+    void onRegistryChange(HttpMethod method);
+
+}
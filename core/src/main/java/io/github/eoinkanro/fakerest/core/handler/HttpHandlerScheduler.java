@@ -0,0 +1,29 @@
+package io.github.eoinkanro.fakerest.core.handler;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+public interface HttpHandlerScheduler {
+
+    /**
+     * Complete future with supplier result after delay without blocking any thread while waiting
+     *
+     * @param delayMillis delay in millis
+     * @param supplier supplier of result
+     * @return future with result
+     */
+    default <T> CompletableFuture<T> delay(long delayMillis, Supplier<T> supplier) {
+        return delayNanos(TimeUnit.MILLISECONDS.toNanos(delayMillis), supplier);
+    }
+
+    /**
+     * Complete future with supplier result after delay without blocking any thread while waiting
+     *
+     * @param delayNanos delay in nanos
+     * @param supplier supplier of result
+     * @return future with result
+     */
+    <T> CompletableFuture<T> delayNanos(long delayNanos, Supplier<T> supplier);
+
+}
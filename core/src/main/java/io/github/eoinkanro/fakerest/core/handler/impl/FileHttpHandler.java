@@ -0,0 +1,216 @@
+package io.github.eoinkanro.fakerest.core.handler.impl;
+
+import io.github.eoinkanro.fakerest.core.conf.impl.FileHttpHandlerConfig;
+import io.github.eoinkanro.fakerest.core.handler.HttpHandler;
+import io.github.eoinkanro.fakerest.core.model.EncodedBody;
+import io.github.eoinkanro.fakerest.core.model.HttpHeader;
+import io.github.eoinkanro.fakerest.core.model.HttpRequest;
+import io.github.eoinkanro.fakerest.core.model.HttpResponse;
+import io.javalin.http.ContentType;
+import io.javalin.http.Header;
+import io.javalin.http.HttpStatus;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Serves a file. The file is memory-mapped on creation, so it never gets on the heap
+ * and every response writes a view of the mapped pages. Supports a single byte range
+ * and conditional requests by ETag and Last-Modified.
+ * <p>
+ * Content and validators are taken on creation, the file must not change while the handler is registered
+ */
+public class FileHttpHandler implements HttpHandler {
+
+    private static final String BYTES_UNIT = "bytes";
+    private static final String RANGE_PREFIX = BYTES_UNIT + "=";
+
+    @Getter
+    private final FileHttpHandlerConfig config;
+    private final ByteBuffer content;
+    private final String contentType;
+    private final String etag;
+    private final Instant lastModified;
+    private final List<HttpHeader> headers;
+    private final HttpResponse fullResponse;
+    private final HttpResponse notModifiedResponse;
+    private final HttpResponse notSatisfiableResponse;
+
+    /**
+     * @throws UncheckedIOException if file can't be read
+     * @throws IllegalArgumentException if file is bigger than 2 GB
+     */
+    public FileHttpHandler(FileHttpHandlerConfig config) {
+        this.config = config;
+
+        Path path = Path.of(config.getFilePath());
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IllegalArgumentException("File is bigger than 2 GB: " + path);
+            }
+            this.content = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            this.lastModified = Files.getLastModifiedTime(path).toInstant().truncatedTo(ChronoUnit.SECONDS);
+            this.contentType = config.getContentType() != null ? config.getContentType() : probeContentType(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't read file: " + path, e);
+        }
+
+        this.etag = "\"" + Long.toHexString(content.remaining()) + "-" + Long.toHexString(lastModified.getEpochSecond()) + "\"";
+        this.headers = List.of(
+            new HttpHeader(Header.ACCEPT_RANGES, BYTES_UNIT),
+            new HttpHeader(Header.ETAG, etag),
+            new HttpHeader(Header.LAST_MODIFIED, formatDate(lastModified)));
+
+        this.fullResponse = HttpResponse.builder()
+            .code(HttpStatus.OK.getCode())
+            .headers(headers)
+            .encodedBody(EncodedBody.wrap(content, contentType))
+            .build();
+        this.notModifiedResponse = HttpResponse.builder()
+            .code(HttpStatus.NOT_MODIFIED.getCode())
+            .headers(headers)
+            .build();
+        this.notSatisfiableResponse = HttpResponse.builder()
+            .code(HttpStatus.RANGE_NOT_SATISFIABLE.getCode())
+            .header(new HttpHeader(Header.CONTENT_RANGE, BYTES_UNIT + " */" + content.remaining()))
+            .build();
+    }
+
+    @Override
+    public HttpResponse handle(HttpRequest request) {
+        if (isNotModified(request)) {
+            return notModifiedResponse;
+        }
+
+        String range = request.getHeader(Header.RANGE);
+        if (range == null || !isRangeValid(request.getHeader(Header.IF_RANGE))) {
+            return fullResponse;
+        }
+        return handleRange(range);
+    }
+
+    /**
+     * If-Modified-Since is ignored if If-None-Match is present
+     */
+    private boolean isNotModified(HttpRequest request) {
+        String ifNoneMatch = request.getHeader(Header.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            return matchesEtag(ifNoneMatch);
+        }
+
+        Instant ifModifiedSince = parseDate(request.getHeader(Header.IF_MODIFIED_SINCE));
+        return ifModifiedSince != null && !lastModified.isAfter(ifModifiedSince);
+    }
+
+    private boolean matchesEtag(String header) {
+        for (String value : header.split(",")) {
+            String tag = value.trim();
+            if (tag.equals("*") || tag.equals(etag) || tag.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Range is used only if If-Range matches the file
+     */
+    private boolean isRangeValid(String ifRange) {
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"")) {
+            return ifRange.equals(etag);
+        }
+        return lastModified.equals(parseDate(ifRange));
+    }
+
+    /**
+     * Several ranges aren't supported, the whole file is returned for them as for an invalid range
+     */
+    private HttpResponse handleRange(String range) {
+        if (!range.startsWith(RANGE_PREFIX) || range.indexOf(',') >= 0) {
+            return fullResponse;
+        }
+
+        int length = content.remaining();
+        String spec = range.substring(RANGE_PREFIX.length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return fullResponse;
+        }
+
+        long start;
+        long end;
+        try {
+            if (dash == 0) {
+                long suffix = Long.parseLong(spec.substring(1));
+                if (suffix < 0) {
+                    return fullResponse;
+                }
+                if (suffix == 0 || length == 0) {
+                    return notSatisfiableResponse;
+                }
+                start = Math.max(0, length - suffix);
+                end = length - 1;
+            } else {
+                start = Long.parseLong(spec.substring(0, dash));
+                end = dash == spec.length() - 1 ? length - 1 : Long.parseLong(spec.substring(dash + 1));
+                if (start >= length) {
+                    return notSatisfiableResponse;
+                }
+                if (start < 0 || end < start) {
+                    return fullResponse;
+                }
+                end = Math.min(end, length - 1);
+            }
+        } catch (NumberFormatException e) {
+            return fullResponse;
+        }
+
+        List<HttpHeader> rangeHeaders = new ArrayList<>(headers.size() + 1);
+        rangeHeaders.addAll(headers);
+        rangeHeaders.add(new HttpHeader(Header.CONTENT_RANGE, BYTES_UNIT + " " + start + "-" + end + "/" + length));
+        return HttpResponse.builder()
+            .code(HttpStatus.PARTIAL_CONTENT.getCode())
+            .headers(rangeHeaders)
+            .encodedBody(EncodedBody.wrap(content.slice((int) start, (int) (end - start + 1)), contentType))
+            .build();
+    }
+
+    private static String probeContentType(Path path) throws IOException {
+        String contentType = Files.probeContentType(path);
+        return contentType != null ? contentType : ContentType.OCTET_STREAM;
+    }
+
+    private static String formatDate(Instant instant) {
+        return DateTimeFormatter.RFC_1123_DATE_TIME.format(instant.atZone(ZoneOffset.UTC));
+    }
+
+    private static Instant parseDate(String date) {
+        if (date == null) {
+            return null;
+        }
+        try {
+            return ZonedDateTime.parse(date, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+}
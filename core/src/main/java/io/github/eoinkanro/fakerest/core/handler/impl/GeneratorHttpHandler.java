@@ -0,0 +1,252 @@
+package io.github.eoinkanro.fakerest.core.handler.impl;
+
+import io.github.eoinkanro.fakerest.core.conf.HttpHandlerBodyType;
+import io.github.eoinkanro.fakerest.core.conf.impl.GeneratorHttpHandlerConfig;
+import io.github.eoinkanro.fakerest.core.handler.HttpHandler;
+import io.github.eoinkanro.fakerest.core.handler.HttpHandlerScheduler;
+import io.github.eoinkanro.fakerest.core.model.HttpHeader;
+import io.github.eoinkanro.fakerest.core.model.HttpRequest;
+import io.github.eoinkanro.fakerest.core.model.HttpResponse;
+import io.github.eoinkanro.fakerest.core.model.HttpResponseStream;
+import io.javalin.http.ContentType;
+import io.javalin.http.Header;
+import io.javalin.http.HttpStatus;
+import lombok.Getter;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Pattern;
+
+/**
+ * Generates a body of any size in chunks, so memory doesn't depend on size of body.
+ * Pattern and random bodies are views of a block made on creation and shared by all requests,
+ * json array elements are built from the template encoded on creation into one buffer reused by the stream.
+ * <p>
+ * Bandwidth is limited by {@link ThrottledHttpResponseStream}, so throttled responses don't hold threads
+ */
+public class GeneratorHttpHandler implements HttpHandler {
+
+    private static final int CHUNK_SIZE = 64 * 1024;
+    /**
+     * Bigger than window of deflate, so random body can't be compressed
+     */
+    private static final int RANDOM_BLOCK_SIZE = 256 * 1024;
+    private static final String DEFAULT_PATTERN = "0123456789abcdefghijklmnopqrstuvwxyz\n";
+    private static final String INDEX_PLACEHOLDER = "{{index}}";
+    private static final String PLAIN_CONTENT_TYPE = ContentType.PLAIN + "; charset=utf-8";
+
+    @Getter
+    private final GeneratorHttpHandlerConfig config;
+    private final HttpHandlerScheduler scheduler;
+    private final HttpHandlerBodyType bodyType;
+    private final int code;
+    private final String contentType;
+    private final List<HttpHeader> headers;
+    private final ByteBuffer block;
+    private final byte[][] elementParts;
+
+    /**
+     * @throws IllegalArgumentException if config misses parameters of its body type or they are invalid
+     */
+    public GeneratorHttpHandler(GeneratorHttpHandlerConfig config, HttpHandlerScheduler scheduler) {
+        this.config = config;
+        this.scheduler = scheduler;
+        this.bodyType = config.getBodyType() == null ? HttpHandlerBodyType.PATTERN : config.getBodyType();
+        if (config.getSizeBytes() < 0 || config.getElements() < 0) {
+            throw new IllegalArgumentException("Generated body must have non negative sizeBytes and elements");
+        }
+
+        this.code = config.getResponseCode() > 0 ? config.getResponseCode() : HttpStatus.OK.getCode();
+        this.contentType = config.getResponseContentType() != null ? config.getResponseContentType() : defaultContentType(bodyType);
+        this.headers = bodyType == HttpHandlerBodyType.JSON_ARRAY
+            ? List.of()
+            : List.of(new HttpHeader(Header.CONTENT_LENGTH, Long.toString(config.getSizeBytes())));
+
+        this.block = switch (bodyType) {
+            case PATTERN -> createPatternBlock(config.getPattern() == null ? DEFAULT_PATTERN : config.getPattern());
+            case RANDOM -> createRandomBlock(config.getSeed(), config.getSizeBytes());
+            case JSON_ARRAY -> null;
+        };
+        this.elementParts = bodyType == HttpHandlerBodyType.JSON_ARRAY ? createElementParts(config.getElementTemplate()) : null;
+    }
+
+    @Override
+    public HttpResponse handle(HttpRequest request) {
+        HttpResponseStream stream = bodyType == HttpHandlerBodyType.JSON_ARRAY ? new JsonArrayStream() : new BlockStream();
+        return HttpResponse.builder()
+            .code(code)
+            .contentType(contentType)
+            .headers(headers)
+            .stream(config.getBytesPerSecond() > 0
+                ? new ThrottledHttpResponseStream(stream, config.getBytesPerSecond(), 0, scheduler)
+                : stream)
+            .build();
+    }
+
+    private static String defaultContentType(HttpHandlerBodyType bodyType) {
+        return switch (bodyType) {
+            case PATTERN -> PLAIN_CONTENT_TYPE;
+            case RANDOM -> ContentType.OCTET_STREAM;
+            case JSON_ARRAY -> ContentType.JSON;
+        };
+    }
+
+    /**
+     * Block has whole patterns only, so the pattern goes on when the block is repeated
+     */
+    private static ByteBuffer createPatternBlock(String pattern) {
+        byte[] bytes = pattern.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length == 0) {
+            throw new IllegalArgumentException("Generated body must have non empty pattern");
+        }
+
+        int repeats = Math.max(1, CHUNK_SIZE / bytes.length);
+        ByteBuffer block = ByteBuffer.allocateDirect(repeats * bytes.length);
+        for (int i = 0; i < repeats; i++) {
+            block.put(bytes);
+        }
+        return block.flip().asReadOnlyBuffer();
+    }
+
+    private static ByteBuffer createRandomBlock(long seed, long size) {
+        byte[] bytes = new byte[(int) Math.max(1, Math.min(RANDOM_BLOCK_SIZE, size))];
+        new SplittableRandom(seed).nextBytes(bytes);
+        return ByteBuffer.allocateDirect(bytes.length).put(bytes).flip().asReadOnlyBuffer();
+    }
+
+    /**
+     * Template is split by index placeholder, so building an element only puts index between the parts
+     */
+    private static byte[][] createElementParts(String template) {
+        if (template == null) {
+            throw new IllegalArgumentException("Generated json array must have elementTemplate");
+        }
+
+        String[] parts = template.split(Pattern.quote(INDEX_PLACEHOLDER), -1);
+        byte[][] elementParts = new byte[parts.length][];
+        for (int i = 0; i < parts.length; i++) {
+            elementParts[i] = parts[i].getBytes(StandardCharsets.UTF_8);
+        }
+        return elementParts;
+    }
+
+    /**
+     * Chunks are requested one by one, so state needs no synchronization
+     */
+    private abstract static class GeneratedStream implements HttpResponseStream {
+
+        @Override
+        public CompletableFuture<ByteBuffer> next() {
+            return CompletableFuture.completedFuture(nextChunk());
+        }
+
+        /**
+         * @return next chunk or null if body is over
+         */
+        abstract ByteBuffer nextChunk();
+
+    }
+
+    private class BlockStream extends GeneratedStream {
+
+        private long remaining = config.getSizeBytes();
+        private int position;
+
+        @Override
+        ByteBuffer nextChunk() {
+            if (remaining == 0) {
+                return null;
+            }
+
+            int length = (int) Math.min(Math.min(CHUNK_SIZE, block.limit() - position), remaining);
+            ByteBuffer chunk = block.slice(position, length);
+            position = (position + length) % block.limit();
+            remaining -= length;
+            return chunk;
+        }
+
+    }
+
+    private class JsonArrayStream extends GeneratedStream {
+
+        /**
+         * Next chunk is requested only after the previous one is written, so the buffer is reused.
+         * It grows only for an element bigger than it
+         */
+        private ByteBuffer buffer = ByteBuffer.allocateDirect(CHUNK_SIZE);
+        /**
+         * ASCII digits of index are written to the end of it, long has at most 19 digits
+         */
+        private final byte[] digits = new byte[19];
+        private long index;
+        private boolean opened;
+        private boolean closed;
+
+        /**
+         * Chunk has whole elements only, an element bigger than chunk size gets its own chunk
+         */
+        @Override
+        ByteBuffer nextChunk() {
+            if (closed) {
+                return null;
+            }
+
+            ByteBuffer chunk = buffer.clear();
+            if (!opened) {
+                chunk.put((byte) '[');
+                opened = true;
+            }
+            while (index < config.getElements()) {
+                int digitsStart = writeDigits(index);
+                int digitsLength = digits.length - digitsStart;
+                int length = elementLength(digitsLength) + (index > 0 ? 1 : 0);
+                if (chunk.remaining() < length) {
+                    if (chunk.position() > 0) {
+                        break;
+                    }
+                    buffer = ByteBuffer.allocateDirect(length);
+                    chunk = buffer;
+                }
+
+                if (index > 0) {
+                    chunk.put((byte) ',');
+                }
+                chunk.put(elementParts[0]);
+                for (int i = 1; i < elementParts.length; i++) {
+                    chunk.put(digits, digitsStart, digitsLength).put(elementParts[i]);
+                }
+                index++;
+            }
+            if (index == config.getElements() && chunk.hasRemaining()) {
+                chunk.put((byte) ']');
+                closed = true;
+            }
+            return chunk.flip();
+        }
+
+        /**
+         * @return start of digits of value
+         */
+        private int writeDigits(long value) {
+            int start = digits.length;
+            do {
+                digits[--start] = (byte) ('0' + value % 10);
+                value /= 10;
+            } while (value > 0);
+            return start;
+        }
+
+        private int elementLength(int digits) {
+            int length = digits * (elementParts.length - 1);
+            for (byte[] part : elementParts) {
+                length += part.length;
+            }
+            return length;
+        }
+
+    }
+
+}
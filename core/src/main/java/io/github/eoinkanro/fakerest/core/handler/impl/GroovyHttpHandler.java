@@ -1,19 +1,31 @@
 package io.github.eoinkanro.fakerest.core.handler.impl;
 
 import groovy.lang.Binding;
-import groovy.lang.GroovyShell;
+import groovy.lang.Script;
 import io.github.eoinkanro.fakerest.core.conf.impl.GroovyHttpHandlerConfig;
+import io.github.eoinkanro.fakerest.core.handler.GroovyScriptCache;
 import io.github.eoinkanro.fakerest.core.handler.HttpHandler;
 import io.github.eoinkanro.fakerest.core.handler.HttpHandlerDataRepository;
+import io.github.eoinkanro.fakerest.core.handler.HttpHandlerScheduler;
 import io.github.eoinkanro.fakerest.core.model.HttpRequest;
 import io.github.eoinkanro.fakerest.core.model.HttpResponse;
+import io.javalin.http.HttpStatus;
 import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.codehaus.groovy.runtime.InvokerHelper;
 import tools.jackson.databind.json.JsonMapper;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+
+@Slf4j
 public class GroovyHttpHandler implements HttpHandler {
 
     private static final String DEFAULT_GROOVY_IMPORT = """
                                                         import io.github.eoinkanro.fakerest.core.model.HttpResponse
+                                                        import io.github.eoinkanro.fakerest.core.model.HttpHeader
                                                         import io.github.eoinkanro.fakerest.core.model.HttpRequest
                                                         import io.github.eoinkanro.fakerest.core.handler.HttpHandlerDataRepository
                                                         import tools.jackson.databind.node.ObjectNode
@@ -21,28 +33,93 @@ public class GroovyHttpHandler implements HttpHandler {
                                                         import tools.jackson.databind.json.JsonMapper
                 """;
 
+    private static final JsonMapper JSON_MAPPER = JsonMapper.builder().build();
+
     @Getter
     private final GroovyHttpHandlerConfig config;
-    private final GroovyShell groovyShell;
-    private final String script;
+    private final HttpHandlerDataRepository dataRepository;
+    private final HttpHandlerScheduler scheduler;
+    private final GroovyScriptWatchdog watchdog;
+    private final Class<? extends Script> scriptClass;
+    private final boolean limited;
+    private final HttpResponse abortResponse;
 
-    public GroovyHttpHandler(GroovyHttpHandlerConfig config, HttpHandlerDataRepository dataRepository) {
+    /**
+     * Script is compiled here once, so a compilation error is thrown on handler creation
+     * and every request only runs the already compiled class. Handlers with the same
+     * script share the compiled class through scriptCache
+     */
+    public GroovyHttpHandler(GroovyHttpHandlerConfig config,
+                             HttpHandlerDataRepository dataRepository,
+                             HttpHandlerScheduler scheduler,
+                             GroovyScriptCache scriptCache,
+                             GroovyScriptWatchdog watchdog) {
         this.config = config;
+        this.dataRepository = dataRepository;
+        this.scheduler = scheduler;
+        this.watchdog = watchdog;
+        this.limited = config.getTimeoutMillis() > 0 || config.getMaxAllocatedBytes() > 0;
+        this.scriptClass = scriptCache.compile(DEFAULT_GROOVY_IMPORT + "\r\n" + config.getGroovyCode(), config.isCompileStatic(), limited);
+        this.abortResponse = HttpResponse.builder()
+            .code(config.getAbortResponseCode() > 0 ? config.getAbortResponseCode() : HttpStatus.SERVICE_UNAVAILABLE.getCode())
+            .body(config.getAbortResponseBody())
+            .build();
+    }
+
+    @Override
+    public HttpResponse handle(HttpRequest request) {
+        return handleAsync(request).join();
+    }
 
-        JsonMapper jsonMapper = JsonMapper.builder().build();
+    /**
+     * Every call gets its own binding and script instance, so concurrent requests
+     * don't see each other's variables. dataRepository and jsonMapper are shared.
+     * Script can return HttpResponse or a future of it
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public CompletableFuture<HttpResponse> handleAsync(HttpRequest request) {
+        Object result = execute(request);
+        if (result instanceof CompletionStage<?> stage) {
+            return (CompletableFuture<HttpResponse>) stage.toCompletableFuture();
+        }
+        return CompletableFuture.completedFuture((HttpResponse) result);
+    }
 
-        Binding groovyBinding = new Binding();
-        this.groovyShell = new GroovyShell(groovyBinding);
-        this.groovyShell.setVariable("dataRepository", dataRepository);
-        this.groovyShell.setVariable("jsonMapper", jsonMapper);
+    private Object execute(HttpRequest request) {
+        if (!limited) {
+            return run(request);
+        }
 
-        this.script = DEFAULT_GROOVY_IMPORT + "\r\n" + config.getGroovyCode();
+        GroovyScriptWatchdog.Execution execution = watchdog.watch(config.getTimeoutMillis(), config.getMaxAllocatedBytes());
+        try {
+            Object result = run(request);
+            return execution.finish() ? abort() : result;
+        } catch (Exception e) {
+            if (execution.finish()) {
+                return abort();
+            }
+            throw e;
+        }
     }
 
-    @Override
-    public HttpResponse handle(HttpRequest request) {
-        groovyShell.setVariable("request", request);
-        return (HttpResponse) groovyShell.evaluate(script);
+    private Object run(HttpRequest request) {
+        Map<String, Object> variables = new HashMap<>(5);
+        variables.put(GroovyHttpHandlerScript.DATA_REPOSITORY, dataRepository);
+        variables.put(GroovyHttpHandlerScript.JSON_MAPPER, JSON_MAPPER);
+        variables.put(GroovyHttpHandlerScript.SCHEDULER, scheduler);
+        variables.put(GroovyHttpHandlerScript.REQUEST, request);
+
+        Script script = InvokerHelper.createScript(scriptClass, new Binding(variables));
+        return script.run();
+    }
+
+    /**
+     * Aborted executions are counted by {@link GroovyScriptWatchdog#getAbortedExecutions()}
+     */
+    private HttpResponse abort() {
+        log.warn("Groovy handler {} {} was aborted because of execution limits", config.getMethod(), config.getPath());
+        return abortResponse;
     }
 
 }
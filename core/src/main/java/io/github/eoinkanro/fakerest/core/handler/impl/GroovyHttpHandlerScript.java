@@ -0,0 +1,87 @@
+package io.github.eoinkanro.fakerest.core.handler.impl;
+
+import groovy.lang.Closure;
+import groovy.lang.Script;
+import io.github.eoinkanro.fakerest.core.handler.HttpHandlerDataRepository;
+import io.github.eoinkanro.fakerest.core.handler.HttpHandlerScheduler;
+import io.github.eoinkanro.fakerest.core.model.HttpRequest;
+import io.github.eoinkanro.fakerest.core.model.HttpResponse;
+import io.github.eoinkanro.fakerest.core.model.HttpResponseStream;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Base class of groovy handler scripts. Gives typed access to the script variables,
+ * so statically compiled scripts can use them
+ */
+public abstract class GroovyHttpHandlerScript extends Script {
+
+    public static final String REQUEST = "request";
+    public static final String DATA_REPOSITORY = "dataRepository";
+    public static final String JSON_MAPPER = "jsonMapper";
+    public static final String SCHEDULER = "scheduler";
+
+    public HttpRequest getRequest() {
+        return (HttpRequest) getBinding().getVariable(REQUEST);
+    }
+
+    public HttpHandlerDataRepository getDataRepository() {
+        return (HttpHandlerDataRepository) getBinding().getVariable(DATA_REPOSITORY);
+    }
+
+    public JsonMapper getJsonMapper() {
+        return (JsonMapper) getBinding().getVariable(JSON_MAPPER);
+    }
+
+    public HttpHandlerScheduler getScheduler() {
+        return (HttpHandlerScheduler) getBinding().getVariable(SCHEDULER);
+    }
+
+    /**
+     * Return response after delay without blocking the request thread
+     *
+     * @param delayMillis delay in millis
+     * @param response response
+     * @return future that should be returned by script
+     */
+    public CompletableFuture<HttpResponse> delay(long delayMillis, HttpResponse response) {
+        return getScheduler().delay(delayMillis, () -> response);
+    }
+
+    /**
+     * Build response after delay without blocking the request thread
+     *
+     * @param delayMillis delay in millis
+     * @param response closure that builds response
+     * @return future that should be returned by script
+     */
+    public CompletableFuture<HttpResponse> delay(long delayMillis, Closure<HttpResponse> response) {
+        return getScheduler().delay(delayMillis, response::call);
+    }
+
+    /**
+     * Stream chunks built by closure without blocking the request thread between them.
+     * The first chunk is built right away, every next one after interval.
+     * Closure gets number of chunk starting from 0 and returns its text or null to end the stream
+     *
+     * @param intervalMillis interval between chunks in millis
+     * @param chunk closure that builds chunk
+     * @return stream that should be set to response
+     */
+    public HttpResponseStream stream(long intervalMillis, Closure<?> chunk) {
+        HttpHandlerScheduler scheduler = getScheduler();
+        AtomicLong number = new AtomicLong();
+        return () -> {
+            long current = number.getAndIncrement();
+            return scheduler.delay(current == 0 ? 0 : intervalMillis, () -> {
+                Object text = chunk.call(current);
+                return text == null ? null : ByteBuffer.wrap(text.toString().getBytes(StandardCharsets.UTF_8));
+            });
+        };
+    }
+
+}
@@ -0,0 +1,174 @@
+package io.github.eoinkanro.fakerest.core.handler.impl;
+
+import groovy.lang.GroovyClassLoader;
+import groovy.lang.GroovyCodeSource;
+import groovy.lang.Script;
+import groovy.transform.CompileStatic;
+import groovy.transform.ThreadInterrupt;
+import io.github.eoinkanro.fakerest.core.handler.GroovyScriptCache;
+import jakarta.inject.Singleton;
+import org.codehaus.groovy.control.CompilerConfiguration;
+import org.codehaus.groovy.control.customizers.ASTTransformationCustomizer;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Process-wide cache of compiled groovy scripts keyed by SHA-256 of the script text and compilation options.
+ * Handlers with the same script share one class, the least recently used class
+ * is evicted when the cache is full
+ */
+@Singleton
+public class GroovyScriptCacheImpl implements GroovyScriptCache {
+
+    private static final int DEFAULT_MAX_SIZE = 1024;
+    private static final String CODE_BASE = "/groovy/script";
+    private static final String DYNAMIC_PREFIX = "Script_";
+    private static final String STATIC_PREFIX = "StaticScript_";
+    private static final String INTERRUPTIBLE_PREFIX = "Interruptible";
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final ScriptClassLoader dynamicClassLoader = new ScriptClassLoader(false, false);
+    private final ScriptClassLoader staticClassLoader = new ScriptClassLoader(true, false);
+    private final ScriptClassLoader interruptibleDynamicClassLoader = new ScriptClassLoader(false, true);
+    private final ScriptClassLoader interruptibleStaticClassLoader = new ScriptClassLoader(true, true);
+    private final Map<String, CompletableFuture<Class<? extends Script>>> compiledScripts;
+
+    public GroovyScriptCacheImpl() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    GroovyScriptCacheImpl(int maxSize) {
+        this.compiledScripts = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompletableFuture<Class<? extends Script>>> eldest) {
+                if (size() <= maxSize) {
+                    return false;
+                }
+                eldest.getValue().thenAccept(scriptClass -> {
+                    dynamicClassLoader.evict(scriptClass);
+                    staticClassLoader.evict(scriptClass);
+                    interruptibleDynamicClassLoader.evict(scriptClass);
+                    interruptibleStaticClassLoader.evict(scriptClass);
+                });
+                return true;
+            }
+        };
+    }
+
+    @Override
+    public Class<? extends Script> compile(String script, boolean compileStatic, boolean interruptible) {
+        String key = (interruptible ? INTERRUPTIBLE_PREFIX : "") + (compileStatic ? STATIC_PREFIX : DYNAMIC_PREFIX) + hash(script);
+
+        CompletableFuture<Class<? extends Script>> compiled;
+        boolean shouldCompile = false;
+        lock.lock();
+        try {
+            compiled = compiledScripts.get(key);
+            if (compiled == null) {
+                compiled = new CompletableFuture<>();
+                compiledScripts.put(key, compiled);
+                shouldCompile = true;
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        //compile outside the lock, other threads with the same script wait for the result
+        if (shouldCompile) {
+            try {
+                compiled.complete(parse(classLoader(compileStatic, interruptible), key, script));
+            } catch (RuntimeException e) {
+                remove(key, compiled);
+                compiled.completeExceptionally(e);
+            }
+        }
+
+        try {
+            return compiled.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return compiledScripts.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ScriptClassLoader classLoader(boolean compileStatic, boolean interruptible) {
+        if (interruptible) {
+            return compileStatic ? interruptibleStaticClassLoader : interruptibleDynamicClassLoader;
+        }
+        return compileStatic ? staticClassLoader : dynamicClassLoader;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Class<? extends Script> parse(ScriptClassLoader classLoader, String key, String script) {
+        GroovyCodeSource codeSource = new GroovyCodeSource(script, key + ".groovy", CODE_BASE);
+        return (Class<? extends Script>) classLoader.parseClass(codeSource, false);
+    }
+
+    private void remove(String key, CompletableFuture<Class<? extends Script>> compiled) {
+        lock.lock();
+        try {
+            compiledScripts.remove(key, compiled);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static String hash(String script) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(script.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Lets evicted classes be unloaded once no handler references them.
+     * Scripts extend {@link GroovyHttpHandlerScript}. Interruptible loaders compile them with @ThreadInterrupt,
+     * so {@link GroovyScriptWatchdog} can abort them, scripts without limits don't pay for interrupt checks.
+     * Static loaders also compile them with @CompileStatic
+     */
+    private static class ScriptClassLoader extends GroovyClassLoader {
+
+        private ScriptClassLoader(boolean compileStatic, boolean interruptible) {
+            super(GroovyScriptCacheImpl.class.getClassLoader(), createCompilerConfiguration(compileStatic, interruptible));
+        }
+
+        private static CompilerConfiguration createCompilerConfiguration(boolean compileStatic, boolean interruptible) {
+            CompilerConfiguration configuration = new CompilerConfiguration();
+            configuration.setScriptBaseClass(GroovyHttpHandlerScript.class.getName());
+            if (interruptible) {
+                configuration.addCompilationCustomizers(new ASTTransformationCustomizer(ThreadInterrupt.class));
+            }
+            if (compileStatic) {
+                configuration.addCompilationCustomizers(new ASTTransformationCustomizer(CompileStatic.class));
+            }
+            return configuration;
+        }
+
+        private void evict(Class<?> scriptClass) {
+            removeClassCacheEntry(scriptClass.getName());
+        }
+
+    }
+
+}
@@ -0,0 +1,143 @@
+package io.github.eoinkanro.fakerest.core.handler.impl;
+
+import jakarta.inject.Singleton;
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aborts groovy scripts that run longer or allocate more than allowed.
+ * Scripts with limits are compiled with @ThreadInterrupt, so interrupting the thread stops loops
+ * and method calls of the script.
+ * <p>
+ * Allocations can't be measured on virtual threads or if JVM doesn't support it,
+ * then only wall time is limited and a warning is logged once
+ */
+@Slf4j
+@Singleton
+public class GroovyScriptWatchdog {
+
+    private static final long ALLOCATION_CHECK_PERIOD_MILLIS = 10;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "groovy-script-watchdog");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final com.sun.management.ThreadMXBean threadMXBean;
+    private final LongAdder abortedExecutions = new LongAdder();
+    private final AtomicBoolean allocationsUnmeasuredLogged = new AtomicBoolean();
+
+    public GroovyScriptWatchdog() {
+        this(getThreadMXBean());
+    }
+
+    GroovyScriptWatchdog(com.sun.management.ThreadMXBean threadMXBean) {
+        this.threadMXBean = threadMXBean;
+    }
+
+    /**
+     * Start watching the script executed by the current thread
+     *
+     * @param timeoutMillis max wall time, 0 means no limit
+     * @param maxAllocatedBytes max allocated bytes, 0 means no limit
+     * @return execution that must be finished by the same thread
+     */
+    public Execution watch(long timeoutMillis, long maxAllocatedBytes) {
+        Thread thread = Thread.currentThread();
+        Execution execution = new Execution(thread);
+
+        long startAllocatedBytes = maxAllocatedBytes > 0 ? allocatedBytes(thread) : -1;
+        if (startAllocatedBytes >= 0) {
+            long startNanos = System.nanoTime();
+            execution.task = scheduler.scheduleAtFixedRate(() -> {
+                boolean timedOut = timeoutMillis > 0
+                    && System.nanoTime() - startNanos >= TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+                boolean allocatedTooMuch = threadMXBean.getThreadAllocatedBytes(thread.getId()) - startAllocatedBytes > maxAllocatedBytes;
+                if (timedOut || allocatedTooMuch) {
+                    execution.abort();
+                }
+            }, ALLOCATION_CHECK_PERIOD_MILLIS, ALLOCATION_CHECK_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+        } else if (timeoutMillis > 0) {
+            execution.task = scheduler.schedule(execution::abort, timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+        return execution;
+    }
+
+    /**
+     * @return allocated bytes of thread or -1 if they can't be measured
+     */
+    private long allocatedBytes(Thread thread) {
+        long allocatedBytes = threadMXBean == null ? -1 : threadMXBean.getThreadAllocatedBytes(thread.getId());
+        if (allocatedBytes < 0 && allocationsUnmeasuredLogged.compareAndSet(false, true)) {
+            log.warn("Allocations of groovy scripts can't be measured on this JVM or on virtual threads, maxAllocatedBytes is ignored");
+        }
+        return allocatedBytes;
+    }
+
+    /**
+     * @return number of aborted executions of all groovy handlers
+     */
+    public long getAbortedExecutions() {
+        return abortedExecutions.sum();
+    }
+
+    private static com.sun.management.ThreadMXBean getThreadMXBean() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+            && bean.isThreadAllocatedMemorySupported()) {
+            bean.setThreadAllocatedMemoryEnabled(true);
+            return bean;
+        }
+        return null;
+    }
+
+    public class Execution {
+
+        private final Thread thread;
+        private volatile ScheduledFuture<?> task;
+        private boolean finished;
+        private boolean aborted;
+
+        private Execution(Thread thread) {
+            this.thread = thread;
+        }
+
+        private synchronized void abort() {
+            if (!finished && !aborted) {
+                aborted = true;
+                thread.interrupt();
+            }
+        }
+
+        /**
+         * Stop watching and clear interrupted flag of the thread if execution was aborted
+         *
+         * @return true if execution was aborted
+         */
+        public boolean finish() {
+            ScheduledFuture<?> currentTask = task;
+            if (currentTask != null) {
+                currentTask.cancel(false);
+            }
+
+            synchronized (this) {
+                finished = true;
+                if (!aborted) {
+                    return false;
+                }
+            }
+
+            Thread.interrupted();
+            abortedExecutions.increment();
+            return true;
+        }
+
+    }
+
+}
@@ -1,48 +1,119 @@
 package io.github.eoinkanro.fakerest.core.handler.impl;
 
 import io.github.eoinkanro.fakerest.core.conf.AbstractHttpHandlerConfig;
+import io.github.eoinkanro.fakerest.core.conf.impl.FileHttpHandlerConfig;
+import io.github.eoinkanro.fakerest.core.conf.impl.GeneratorHttpHandlerConfig;
 import io.github.eoinkanro.fakerest.core.conf.impl.GroovyHttpHandlerConfig;
 import io.github.eoinkanro.fakerest.core.conf.impl.RouterHttpHandlerConfig;
 import io.github.eoinkanro.fakerest.core.conf.impl.StaticHttpHandlerConfig;
+import io.github.eoinkanro.fakerest.core.conf.impl.StreamHttpHandlerConfig;
+import io.github.eoinkanro.fakerest.core.handler.GroovyScriptCache;
 import io.github.eoinkanro.fakerest.core.handler.HttpHandler;
 import io.github.eoinkanro.fakerest.core.handler.HttpHandlerDataRepository;
 import io.github.eoinkanro.fakerest.core.handler.HttpHandlerFactory;
 import io.github.eoinkanro.fakerest.core.handler.HttpHandlerRegistry;
+import io.github.eoinkanro.fakerest.core.handler.HttpHandlerScheduler;
+import io.github.eoinkanro.fakerest.core.model.EncodedBody;
+import io.github.eoinkanro.fakerest.core.model.HttpHeader;
 import io.github.eoinkanro.fakerest.core.model.HttpResponse;
+import io.javalin.http.ContentType;
+import io.javalin.http.Header;
 import jakarta.inject.Singleton;
 import lombok.RequiredArgsConstructor;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
 @Singleton
 @RequiredArgsConstructor
 public class HttpHandlerFactoryImpl implements HttpHandlerFactory {
 
+    private static final String STATIC_CONTENT_TYPE = ContentType.PLAIN + "; charset=utf-8";
+    /**
+     * Shorter bodies fit in one packet anyway
+     */
+    private static final int STATIC_MIN_LENGTH_FOR_COMPRESSION = 1500;
+
     private final HttpHandlerRegistry handlerRegistry;
     private final HttpHandlerDataRepository dataRepository;
+    private final HttpHandlerScheduler scheduler;
+    private final GroovyScriptCache scriptCache;
+    private final GroovyScriptWatchdog scriptWatchdog;
 
+    /**
+     * Handler with latency is wrapped to delay its responses, handler with throttle is wrapped
+     * outside of it, so delayed requests count towards the concurrency limit
+     */
     @Override
     public HttpHandler create(AbstractHttpHandlerConfig config) {
-        return switch (config.getType()) {
+        HttpHandler handler = switch (config.getType()) {
             case STATIC -> createStaticHttpHandler((StaticHttpHandlerConfig) config);
             case GROOVY -> createGroovyHttpHandler((GroovyHttpHandlerConfig) config);
             case ROUTER -> createRouterHttpHandler((RouterHttpHandlerConfig) config);
+            case FILE -> createFileHttpHandler((FileHttpHandlerConfig) config);
+            case STREAM -> createStreamHttpHandler((StreamHttpHandlerConfig) config);
+            case GENERATOR -> createGeneratorHttpHandler((GeneratorHttpHandlerConfig) config);
         };
+        if (config.getLatency() != null) {
+            handler = new LatencyHttpHandler(handler, scheduler);
+        }
+        if (config.getThrottle() != null) {
+            handler = new ThrottledHttpHandler(handler, scheduler);
+        }
+        return handler;
     }
 
+    /**
+     * Body is encoded and compressed here once, headers are collected here once,
+     * so requests only write the same bytes and iterate over the same headers
+     */
     private StaticHttpHandler createStaticHttpHandler(StaticHttpHandlerConfig config) {
+        String contentType = config.getResponseContentType();
+        List<HttpHeader> headers = new ArrayList<>();
+        if (config.getResponseHeaders() != null) {
+            for (Map.Entry<String, List<String>> header : config.getResponseHeaders().entrySet()) {
+                if (Header.CONTENT_TYPE.equalsIgnoreCase(header.getKey())) {
+                    contentType = contentType == null && !header.getValue().isEmpty() ? header.getValue().get(0) : contentType;
+                    continue;
+                }
+                header.getValue().forEach(value -> headers.add(new HttpHeader(header.getKey(), value)));
+            }
+        }
+        if (contentType == null) {
+            contentType = STATIC_CONTENT_TYPE;
+        }
+
+        String body = config.getResponseBody();
         return new StaticHttpHandler(config,
             HttpResponse.builder()
                 .code(config.getResponseCode())
-                .body(config.getResponseBody())
+                .body(body)
+                .contentType(contentType)
+                .headers(headers)
+                .encodedBody(body == null ? null : EncodedBody.of(body, contentType).compress(STATIC_MIN_LENGTH_FOR_COMPRESSION))
                 .build()
         );
     }
 
     private GroovyHttpHandler createGroovyHttpHandler(GroovyHttpHandlerConfig config) {
-        return new GroovyHttpHandler(config, dataRepository);
+        return new GroovyHttpHandler(config, dataRepository, scheduler, scriptCache, scriptWatchdog);
     }
 
     private RouterHttpHandler createRouterHttpHandler(RouterHttpHandlerConfig config) {
         return new RouterHttpHandler(config, handlerRegistry);
     }
 
+    private FileHttpHandler createFileHttpHandler(FileHttpHandlerConfig config) {
+        return new FileHttpHandler(config);
+    }
+
+    private StreamHttpHandler createStreamHttpHandler(StreamHttpHandlerConfig config) {
+        return new StreamHttpHandler(config, scheduler);
+    }
+
+    private GeneratorHttpHandler createGeneratorHttpHandler(GeneratorHttpHandlerConfig config) {
+        return new GeneratorHttpHandler(config, scheduler);
+    }
+
 }
@@ -1,71 +1,131 @@
 package io.github.eoinkanro.fakerest.core.handler.impl;
 
 import io.github.eoinkanro.fakerest.core.conf.AbstractHttpHandlerConfig;
+import io.github.eoinkanro.fakerest.core.conf.HttpHandlerPathType;
+import io.github.eoinkanro.fakerest.core.conf.impl.RouterHttpHandlerConfig;
 import io.github.eoinkanro.fakerest.core.handler.HttpHandler;
+import io.github.eoinkanro.fakerest.core.handler.HttpHandlerMatch;
 import io.github.eoinkanro.fakerest.core.handler.HttpHandlerRegistry;
+import io.github.eoinkanro.fakerest.core.handler.HttpHandlerRegistryBatch;
+import io.github.eoinkanro.fakerest.core.handler.HttpHandlerRegistryListener;
 import io.github.eoinkanro.fakerest.core.handler.RegisterException;
 import io.github.eoinkanro.fakerest.core.model.HttpMethod;
 import jakarta.inject.Singleton;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
 
+/**
+ * Lookups read an immutable snapshot through one volatile field, so they don't take locks
+ * and always see a handler in all indexes or in none of them. Changes build a new snapshot
+ * under the lock, copying only indexes of changed methods, and publish it at once.
+ * Registered handlers implementing {@link HttpHandlerRegistryListener} are notified after that.
+ * <p>
+ * Every namespace has its own indexes, handlers without namespace are in the default one
+ */
 @Singleton
 public class HttpHandlerRegistryImpl implements HttpHandlerRegistry {
 
+    private static final String DEFAULT_NAMESPACE = "";
+    private static final Map<HttpMethod, MethodHandlers> EMPTY_NAMESPACE = emptyNamespace();
+
     private final ReentrantLock registerLock = new ReentrantLock();
 
-    private final Map<HttpMethod, Map<String, HttpHandler>> activeHandlersByMethodPath = new ConcurrentHashMap<>();
-    private final Map<String, HttpHandler> activeHandlersById = new ConcurrentHashMap<>();
+    private final List<HttpHandlerRegistryListener> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile Snapshot snapshot;
+
+    public HttpHandlerRegistryImpl() {
+        this.snapshot = new Snapshot(Collections.emptyMap(), Collections.emptyMap());
+    }
 
     @Override
     public void register(HttpHandler handler) throws RegisterException {
+        apply(new HttpHandlerRegistryBatch().register(handler));
+    }
+
+    @Override
+    public void unregister(String namespace, HttpMethod method, String path) {
         try {
             registerLock.lock();
-            AbstractHttpHandlerConfig config = handler.getConfig();
+            Transaction transaction = new Transaction(snapshot);
+            transaction.unregister(namespace(namespace), method, path);
+            publish(transaction);
+        } finally {
+            registerLock.unlock();
+        }
+    }
 
-            String id = config.getId();
-            if (id == null || id.isBlank()) {
-                throw new RegisterException("Id of handler is empty");
-            }
+    @Override
+    public void unregister(String id) {
+        try {
+            registerLock.lock();
+            Transaction transaction = new Transaction(snapshot);
+            transaction.unregister(id);
+            publish(transaction);
+        } finally {
+            registerLock.unlock();
+        }
+    }
 
-            Map<String, HttpHandler> handlers = activeHandlersByMethodPath.computeIfAbsent(config.getMethod(), __ -> new ConcurrentHashMap<>());
-            if (handlers.containsKey(config.getPath())) {
-                throw new RegisterException(String.format("Handler with method: %s and path: %s already exists",
-                    config.getMethod(),
-                    config.getPath()));
-            }
-            if (activeHandlersById.containsKey(id)) {
-                throw new RegisterException(String.format("Handler with id %s already exist", id));
+    @Override
+    public void apply(HttpHandlerRegistryBatch batch) throws RegisterException {
+        try {
+            registerLock.lock();
+            Transaction transaction = new Transaction(snapshot);
+            unregister(transaction, batch);
+            for (HttpHandler handler : batch.getRegistrations()) {
+                transaction.register(handler);
             }
-
-            handlers.put(config.getPath(), handler);
-            activeHandlersById.put(id, handler);
+            transaction.checkRouterCycles();
+            publish(transaction);
         } finally {
             registerLock.unlock();
         }
     }
 
     @Override
-    public void unregister(HttpMethod method, String path) {
+    public void applyValid(HttpHandlerRegistryBatch batch, BiConsumer<HttpHandler, RegisterException> rejected) {
         try {
             registerLock.lock();
-            Map<String, HttpHandler> handlers = activeHandlersByMethodPath.computeIfAbsent(method, __ -> new ConcurrentHashMap<>());
-            HttpHandler removedHandler = handlers.remove(path);
-            if (removedHandler != null) {
-                activeHandlersById.remove(removedHandler.getConfig().getId());
+            Transaction transaction = new Transaction(snapshot);
+            unregister(transaction, batch);
+            for (HttpHandler handler : batch.getRegistrations()) {
+                try {
+                    transaction.registerChecked(handler);
+                } catch (RegisterException e) {
+                    rejected.accept(handler, e);
+                }
             }
+            publish(transaction);
         } finally {
             registerLock.unlock();
         }
+    }
 
+    @Override
+    public HttpHandler find(String namespace, HttpMethod method, String path) {
+        return snapshot.handlers(namespace(namespace), method).handlersByPath().get(path);
     }
 
     @Override
-    public HttpHandler find(HttpMethod method, String path) {
-        Map<String, HttpHandler> handlers = activeHandlersByMethodPath.computeIfAbsent(method, __ -> new ConcurrentHashMap<>());
-        return handlers.get(path);
+    public HttpHandlerMatch match(String namespace, HttpMethod method, String path) {
+        MethodHandlers handlers = snapshot.handlers(namespace(namespace), method);
+        HttpHandlerMatch match = handlers.templates().match(path);
+        if (match != null) {
+            return match;
+        }
+        return handlers.patterns().match(path);
     }
 
     @Override
@@ -73,7 +133,350 @@ public class HttpHandlerRegistryImpl implements HttpHandlerRegistry {
         if (id == null) {
             return null;
         }
-        return activeHandlersById.get(id);
+        return snapshot.handlersById().get(id);
+    }
+
+    private static void unregister(Transaction transaction, HttpHandlerRegistryBatch batch) {
+        for (HttpHandlerRegistryBatch.Unregistration unregistration : batch.getUnregistrations()) {
+            transaction.unregister(namespace(unregistration.namespace()), unregistration.method(), unregistration.path());
+        }
+        for (String id : batch.getUnregistrationsById()) {
+            transaction.unregister(id);
+        }
+    }
+
+    private void publish(Transaction transaction) {
+        if (transaction.changes.isEmpty()) {
+            return;
+        }
+
+        snapshot = transaction.build();
+
+        for (HttpHandler handler : transaction.unregistered) {
+            if (handler instanceof HttpHandlerRegistryListener listener) {
+                listeners.remove(listener);
+            }
+        }
+        for (HttpHandler handler : transaction.registered) {
+            if (handler instanceof HttpHandlerRegistryListener listener) {
+                listeners.add(listener);
+            }
+        }
+        Set<HttpMethod> changedMethods = EnumSet.noneOf(HttpMethod.class);
+        for (NamespaceMethod changed : transaction.changes.keySet()) {
+            changedMethods.add(changed.method());
+        }
+        for (HttpMethod method : changedMethods) {
+            for (HttpHandlerRegistryListener listener : listeners) {
+                listener.onRegistryChange(method);
+            }
+        }
+    }
+
+    private static String namespace(String namespace) {
+        return namespace == null ? DEFAULT_NAMESPACE : namespace;
+    }
+
+    private static Map<HttpMethod, MethodHandlers> emptyNamespace() {
+        Map<HttpMethod, MethodHandlers> handlersByMethod = new EnumMap<>(HttpMethod.class);
+        for (HttpMethod method : HttpMethod.values()) {
+            handlersByMethod.put(method, new MethodHandlers(Collections.emptyMap(), new PathTemplateTrie(), new PathPatternIndex()));
+        }
+        return Collections.unmodifiableMap(handlersByMethod);
+    }
+
+    private static boolean isTemplate(AbstractHttpHandlerConfig config) {
+        return pathType(config) == HttpHandlerPathType.TEMPLATE;
+    }
+
+    /**
+     * @return path type of config, {@link HttpHandlerPathType#TEMPLATE} if not set
+     */
+    static HttpHandlerPathType pathType(AbstractHttpHandlerConfig config) {
+        return config.getPathType() == null ? HttpHandlerPathType.TEMPLATE : config.getPathType();
+    }
+
+    /**
+     * Changes of one batch. Indexes of snapshot are copied on the first change of them
+     */
+    private static final class Transaction {
+
+        private final Snapshot base;
+        private final Map<NamespaceMethod, MethodChange> changes = new HashMap<>();
+        private final List<HttpHandler> registered = new ArrayList<>();
+        private final List<HttpHandler> unregistered = new ArrayList<>();
+        private Map<String, HttpHandler> handlersById;
+
+        private Transaction(Snapshot base) {
+            this.base = base;
+        }
+
+        private void register(HttpHandler handler) throws RegisterException {
+            AbstractHttpHandlerConfig config = handler.getConfig();
+
+            String id = config.getId();
+            if (id == null || id.isBlank()) {
+                throw new RegisterException("Id of handler is empty");
+            }
+            if (config.getMethod() == null || config.getPath() == null) {
+                throw new RegisterException("Method or path of handler is empty");
+            }
+
+            String namespace = namespace(config.getNamespace());
+            HttpHandler existing = handlersByPath(namespace, config.getMethod()).get(config.getPath());
+            if (existing != null && !config.hasMatchers() && !(existing instanceof VariantsHttpHandler)) {
+                throw new RegisterException(String.format("Handler with method: %s and path: %s already exists",
+                    config.getMethod(),
+                    config.getPath()));
+            }
+            if ((handlersById == null ? base.handlersById() : handlersById).containsKey(id)) {
+                throw new RegisterException(String.format("Handler with id %s already exist", id));
+            }
+
+            if (existing == null) {
+                add(namespace, config.getMethod(), config.getPath(), config.hasMatchers() ? VariantsHttpHandler.of(handler) : handler);
+            } else {
+                VariantsHttpHandler variants = existing instanceof VariantsHttpHandler existingVariants
+                    ? existingVariants
+                    : VariantsHttpHandler.of(existing);
+                replace(namespace, config.getMethod(), config.getPath(), existing, variants.with(handler));
+            }
+            handlersById().put(id, handler);
+            registered.add(handler);
+        }
+
+        /**
+         * Register handler and check it for router cycles right away, so a rejected handler
+         * is rolled back and doesn't affect the next ones
+         */
+        private void registerChecked(HttpHandler handler) throws RegisterException {
+            register(handler);
+            try {
+                checkRouterCycle(handler);
+            } catch (RegisterException e) {
+                unregister(handler.getConfig().getId());
+                registered.remove(handler);
+                unregistered.remove(handler);
+                throw e;
+            }
+        }
+
+        private void unregister(String namespace, HttpMethod method, String path) {
+            HttpHandler existing = handlersByPath(namespace, method).get(path);
+            if (existing == null) {
+                return;
+            }
+
+            remove(namespace, method, path, existing);
+            List<HttpHandler> removedHandlers = existing instanceof VariantsHttpHandler variants
+                ? variants.handlers()
+                : List.of(existing);
+            for (HttpHandler removedHandler : removedHandlers) {
+                handlersById().remove(removedHandler.getConfig().getId());
+                unregistered.add(removedHandler);
+            }
+        }
+
+        private void unregister(String id) {
+            HttpHandler removedHandler = (handlersById == null ? base.handlersById() : handlersById).get(id);
+            if (removedHandler == null) {
+                return;
+            }
+
+            AbstractHttpHandlerConfig config = removedHandler.getConfig();
+            String namespace = namespace(config.getNamespace());
+            HttpHandler existing = handlersByPath(namespace, config.getMethod()).get(config.getPath());
+            if (existing == removedHandler) {
+                unregister(namespace, config.getMethod(), config.getPath());
+                return;
+            }
+
+            HttpHandler newEntry = ((VariantsHttpHandler) existing).without(removedHandler);
+            if (newEntry == null) {
+                remove(namespace, config.getMethod(), config.getPath(), existing);
+            } else {
+                replace(namespace, config.getMethod(), config.getPath(), existing, newEntry);
+            }
+            handlersById().remove(id);
+            unregistered.add(removedHandler);
+        }
+
+        private void add(String namespace, HttpMethod method, String path, HttpHandler handler) throws RegisterException {
+            MethodChange change = change(namespace, method);
+            AbstractHttpHandlerConfig config = handler.getConfig();
+            if (isTemplate(config)) {
+                change.templates().add(path, handler);
+            } else {
+                change.patterns().add(path, config.getPathType(), config.getPriority(), handler);
+            }
+            change.handlersByPath().put(path, handler);
+        }
+
+        /**
+         * Replace handler of path with another one with the same path type in all indexes of method
+         */
+        private void replace(String namespace, HttpMethod method, String path, HttpHandler oldHandler, HttpHandler newHandler) {
+            MethodChange change = change(namespace, method);
+            if (isTemplate(oldHandler.getConfig())) {
+                change.templates().replace(path, newHandler);
+            } else {
+                change.patterns().replace(path, newHandler);
+            }
+            change.handlersByPath().put(path, newHandler);
+        }
+
+        private void remove(String namespace, HttpMethod method, String path, HttpHandler oldHandler) {
+            MethodChange change = change(namespace, method);
+            if (isTemplate(oldHandler.getConfig())) {
+                change.templates().remove(path);
+            } else {
+                change.patterns().remove(path);
+            }
+            change.handlersByPath().remove(path);
+        }
+
+        /**
+         * Router can't route to itself directly or through other routers of its namespace
+         */
+        private void checkRouterCycles() throws RegisterException {
+            for (HttpHandler handler : registered) {
+                checkRouterCycle(handler);
+            }
+        }
+
+        private void checkRouterCycle(HttpHandler handler) throws RegisterException {
+            AbstractHttpHandlerConfig config = handler.getConfig();
+            if (config instanceof RouterHttpHandlerConfig) {
+                checkRouterCycle(config,
+                    handlersByPath(namespace(config.getNamespace()), config.getMethod()),
+                    config.getPath(),
+                    new LinkedHashSet<>());
+            }
+        }
+
+        /**
+         * Depth first search by paths, a path with several handlers routes to targets of all its routers
+         */
+        private void checkRouterCycle(AbstractHttpHandlerConfig config,
+                                      Map<String, HttpHandler> handlersByPath,
+                                      String path,
+                                      Set<String> visiting) throws RegisterException {
+            if (!visiting.add(path)) {
+                throw new RegisterException(String.format("Router %s %s routes to itself through %s",
+                    config.getMethod(),
+                    config.getPath(),
+                    visiting));
+            }
+
+            HttpHandler target = handlersByPath.get(path);
+            List<HttpHandler> targets = target instanceof VariantsHttpHandler variants
+                ? variants.handlers()
+                : target == null ? List.of() : List.of(target);
+            for (HttpHandler handler : targets) {
+                if (handler.getConfig() instanceof RouterHttpHandlerConfig router) {
+                    checkRouterCycle(config, handlersByPath, router.getRouterPath(), visiting);
+                }
+            }
+            visiting.remove(path);
+        }
+
+        private Snapshot build() {
+            Map<String, Map<HttpMethod, MethodHandlers>> handlersByNamespace = new HashMap<>(base.handlersByNamespace());
+            changes.forEach((changed, change) -> handlersByNamespace
+                .compute(changed.namespace(), (namespace, handlersByMethod) -> {
+                    Map<HttpMethod, MethodHandlers> newHandlersByMethod = new EnumMap<>(
+                        handlersByMethod == null ? EMPTY_NAMESPACE : handlersByMethod);
+                    newHandlersByMethod.put(changed.method(), change.build());
+                    return newHandlersByMethod;
+                }));
+            return new Snapshot(handlersByNamespace, handlersById == null ? base.handlersById() : handlersById);
+        }
+
+        /**
+         * @return handlers of method with changes of transaction, read only if method wasn't changed
+         */
+        private Map<String, HttpHandler> handlersByPath(String namespace, HttpMethod method) {
+            MethodChange change = changes.get(new NamespaceMethod(namespace, method));
+            return change == null ? base.handlers(namespace, method).handlersByPath() : change.handlersByPath();
+        }
+
+        private MethodChange change(String namespace, HttpMethod method) {
+            return changes.computeIfAbsent(new NamespaceMethod(namespace, method),
+                __ -> new MethodChange(base.handlers(namespace, method)));
+        }
+
+        private Map<String, HttpHandler> handlersById() {
+            if (handlersById == null) {
+                handlersById = new HashMap<>(base.handlersById());
+            }
+            return handlersById;
+        }
+
+    }
+
+    /**
+     * Changed indexes of one method
+     */
+    private static final class MethodChange {
+
+        private final MethodHandlers base;
+        private Map<String, HttpHandler> handlersByPath;
+        private PathTemplateTrie templates;
+        private PathPatternIndex patterns;
+
+        private MethodChange(MethodHandlers base) {
+            this.base = base;
+        }
+
+        private Map<String, HttpHandler> handlersByPath() {
+            if (handlersByPath == null) {
+                handlersByPath = new HashMap<>(base.handlersByPath());
+            }
+            return handlersByPath;
+        }
+
+        private PathTemplateTrie templates() {
+            if (templates == null) {
+                templates = base.templates().copy();
+            }
+            return templates;
+        }
+
+        private PathPatternIndex patterns() {
+            if (patterns == null) {
+                patterns = base.patterns().copy();
+            }
+            return patterns;
+        }
+
+        private MethodHandlers build() {
+            return new MethodHandlers(handlersByPath == null ? base.handlersByPath() : handlersByPath,
+                templates == null ? base.templates() : templates,
+                patterns == null ? base.patterns() : patterns);
+        }
+
+    }
+
+    /**
+     * Never changed after publication
+     */
+    private record Snapshot(Map<String, Map<HttpMethod, MethodHandlers>> handlersByNamespace,
+                            Map<String, HttpHandler> handlersById) {
+
+        private MethodHandlers handlers(String namespace, HttpMethod method) {
+            return handlersByNamespace.getOrDefault(namespace, EMPTY_NAMESPACE).get(method);
+        }
+
+    }
+
+    private record NamespaceMethod(String namespace, HttpMethod method) {
+
+    }
+
+    private record MethodHandlers(Map<String, HttpHandler> handlersByPath,
+                                  PathTemplateTrie templates,
+                                  PathPatternIndex patterns) {
+
     }
 
 }
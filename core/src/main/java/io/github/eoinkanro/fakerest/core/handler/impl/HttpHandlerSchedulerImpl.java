@@ -0,0 +1,41 @@
+package io.github.eoinkanro.fakerest.core.handler.impl;
+
+import io.github.eoinkanro.fakerest.core.handler.HttpHandlerScheduler;
+import jakarta.inject.Singleton;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+@Singleton
+public class HttpHandlerSchedulerImpl implements HttpHandlerScheduler {
+
+    private final AtomicInteger threadNumber = new AtomicInteger();
+    private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(
+        Runtime.getRuntime().availableProcessors(),
+        runnable -> {
+            Thread thread = new Thread(runnable, "http-handler-scheduler-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+    /**
+     * Delayed tasks wait in a heap of the executor, so pending delays cost only memory
+     */
+    @Override
+    public <T> CompletableFuture<T> delayNanos(long delayNanos, Supplier<T> supplier) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        scheduler.schedule(() -> {
+            try {
+                future.complete(supplier.get());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        }, Math.max(0, delayNanos), TimeUnit.NANOSECONDS);
+        return future;
+    }
+
+}
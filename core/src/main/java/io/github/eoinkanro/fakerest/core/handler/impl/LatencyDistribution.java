@@ -0,0 +1,201 @@
+package io.github.eoinkanro.fakerest.core.handler.impl;
+
+import io.github.eoinkanro.fakerest.core.conf.HttpHandlerLatencyConfig;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Draws delays from distribution of latency config. Parameters are validated
+ * and derived once, drawing a delay doesn't allocate
+ */
+abstract class LatencyDistribution {
+
+    private static final double NANOS_IN_MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final double minMillis;
+    private final double maxMillis;
+
+    private LatencyDistribution(HttpHandlerLatencyConfig config) {
+        this.minMillis = config.getMinMillis() == null ? 0 : config.getMinMillis();
+        this.maxMillis = config.getMaxMillis() == null ? Double.MAX_VALUE : config.getMaxMillis();
+        if (minMillis < 0 || maxMillis < minMillis) {
+            throw new IllegalArgumentException("Latency must have 0 <= minMillis <= maxMillis");
+        }
+    }
+
+    /**
+     * @param config latency config
+     * @return distribution of config
+     * @throws IllegalArgumentException if config misses parameters of its type or they are invalid
+     */
+    static LatencyDistribution of(HttpHandlerLatencyConfig config) {
+        if (config.getType() == null) {
+            throw new IllegalArgumentException("Latency must have type");
+        }
+        return switch (config.getType()) {
+            case FIXED -> new Fixed(config);
+            case UNIFORM -> new Uniform(config);
+            case NORMAL -> new Normal(config);
+            case LOG_NORMAL -> new LogNormal(config);
+            case PERCENTILES -> new Percentiles(config);
+        };
+    }
+
+    /**
+     * @return next delay in nanos
+     */
+    long nextNanos() {
+        double millis = Math.min(maxMillis, Math.max(minMillis, nextMillis(ThreadLocalRandom.current())));
+        return (long) (millis * NANOS_IN_MILLI);
+    }
+
+    abstract double nextMillis(ThreadLocalRandom random);
+
+    private static double require(Double value, String name) {
+        if (value == null || value < 0) {
+            throw new IllegalArgumentException("Latency must have non negative " + name);
+        }
+        return value;
+    }
+
+    private static class Fixed extends LatencyDistribution {
+
+        private final double millis;
+
+        private Fixed(HttpHandlerLatencyConfig config) {
+            super(config);
+            this.millis = require(config.getMillis(), "millis");
+        }
+
+        @Override
+        double nextMillis(ThreadLocalRandom random) {
+            return millis;
+        }
+
+    }
+
+    private static class Uniform extends LatencyDistribution {
+
+        private final double min;
+        private final double max;
+
+        private Uniform(HttpHandlerLatencyConfig config) {
+            super(config);
+            this.min = require(config.getMinMillis(), "minMillis");
+            this.max = require(config.getMaxMillis(), "maxMillis");
+        }
+
+        @Override
+        double nextMillis(ThreadLocalRandom random) {
+            return min == max ? min : random.nextDouble(min, max);
+        }
+
+    }
+
+    private static class Normal extends LatencyDistribution {
+
+        private final double mean;
+        private final double stdDev;
+
+        private Normal(HttpHandlerLatencyConfig config) {
+            super(config);
+            this.mean = require(config.getMeanMillis(), "meanMillis");
+            this.stdDev = require(config.getStdDevMillis(), "stdDevMillis");
+        }
+
+        @Override
+        double nextMillis(ThreadLocalRandom random) {
+            return mean + stdDev * random.nextGaussian();
+        }
+
+    }
+
+    /**
+     * Parameters of underlying normal distribution are derived from mean and standard deviation of delays
+     */
+    private static class LogNormal extends LatencyDistribution {
+
+        private final double mu;
+        private final double sigma;
+
+        private LogNormal(HttpHandlerLatencyConfig config) {
+            super(config);
+            double mean = require(config.getMeanMillis(), "meanMillis");
+            double stdDev = require(config.getStdDevMillis(), "stdDevMillis");
+            if (mean == 0) {
+                throw new IllegalArgumentException("Log-normal latency must have positive meanMillis");
+            }
+
+            double variance = Math.log(1 + (stdDev * stdDev) / (mean * mean));
+            this.sigma = Math.sqrt(variance);
+            this.mu = Math.log(mean) - variance / 2;
+        }
+
+        @Override
+        double nextMillis(ThreadLocalRandom random) {
+            return Math.exp(mu + sigma * random.nextGaussian());
+        }
+
+    }
+
+    /**
+     * Delay is interpolated between the nearest percentiles. Below the first percentile it goes down
+     * to minMillis, above the last one up to maxMillis, or stays at the delay of the percentile if they aren't set
+     */
+    private static class Percentiles extends LatencyDistribution {
+
+        private final double[] quantiles;
+        private final double[] delays;
+
+        private Percentiles(HttpHandlerLatencyConfig config) {
+            super(config);
+            if (config.getPercentiles() == null || config.getPercentiles().isEmpty()) {
+                throw new IllegalArgumentException("Latency must have percentiles");
+            }
+
+            TreeMap<Double, Double> points = new TreeMap<>();
+            for (Map.Entry<Double, Double> entry : config.getPercentiles().entrySet()) {
+                if (entry.getKey() == null || entry.getKey() < 0 || entry.getKey() > 100) {
+                    throw new IllegalArgumentException("Latency percentile must be between 0 and 100");
+                }
+                points.put(entry.getKey() / 100, require(entry.getValue(), "percentile delay"));
+            }
+            points.putIfAbsent(0.0, config.getMinMillis() != null ? config.getMinMillis() : points.firstEntry().getValue());
+            points.putIfAbsent(1.0, config.getMaxMillis() != null ? config.getMaxMillis() : points.lastEntry().getValue());
+
+            this.quantiles = new double[points.size()];
+            this.delays = new double[points.size()];
+            int i = 0;
+            double previousDelay = 0;
+            for (Map.Entry<Double, Double> point : points.entrySet()) {
+                if (point.getValue() < previousDelay) {
+                    throw new IllegalArgumentException("Latency percentiles must not decrease");
+                }
+                quantiles[i] = point.getKey();
+                delays[i] = point.getValue();
+                previousDelay = point.getValue();
+                i++;
+            }
+        }
+
+        @Override
+        double nextMillis(ThreadLocalRandom random) {
+            double quantile = random.nextDouble();
+            int i = 1;
+            while (i < quantiles.length - 1 && quantiles[i] < quantile) {
+                i++;
+            }
+
+            double width = quantiles[i] - quantiles[i - 1];
+            if (width == 0) {
+                return delays[i];
+            }
+            return delays[i - 1] + (delays[i] - delays[i - 1]) * (quantile - quantiles[i - 1]) / width;
+        }
+
+    }
+
+}
@@ -0,0 +1,65 @@
+package io.github.eoinkanro.fakerest.core.handler.impl;
+
+import io.github.eoinkanro.fakerest.core.conf.AbstractHttpHandlerConfig;
+import io.github.eoinkanro.fakerest.core.handler.HttpHandler;
+import io.github.eoinkanro.fakerest.core.handler.HttpHandlerRegistryListener;
+import io.github.eoinkanro.fakerest.core.handler.HttpHandlerScheduler;
+import io.github.eoinkanro.fakerest.core.model.HttpMethod;
+import io.github.eoinkanro.fakerest.core.model.HttpRequest;
+import io.github.eoinkanro.fakerest.core.model.HttpResponse;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Delays responses of handler by latency of its config. Delay is counted from the start
+ * of handling, so a slow handler is delayed less, and is waited on the shared scheduler
+ * without holding a thread.
+ * <p>
+ * Forwards registry changes, because the handler it wraps can be a listener
+ */
+class LatencyHttpHandler implements HttpHandler, HttpHandlerRegistryListener {
+
+    private final HttpHandler handler;
+    private final LatencyDistribution latency;
+    private final HttpHandlerScheduler scheduler;
+
+    /**
+     * @throws IllegalArgumentException if latency config is invalid
+     */
+    LatencyHttpHandler(HttpHandler handler, HttpHandlerScheduler scheduler) {
+        this.handler = handler;
+        this.latency = LatencyDistribution.of(handler.getConfig().getLatency());
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public AbstractHttpHandlerConfig getConfig() {
+        return handler.getConfig();
+    }
+
+    @Override
+    public HttpResponse handle(HttpRequest request) {
+        return handleAsync(request).join();
+    }
+
+    @Override
+    public CompletableFuture<HttpResponse> handleAsync(HttpRequest request) {
+        long start = System.nanoTime();
+        long delay = latency.nextNanos();
+
+        return handler.handleAsync(request).thenCompose(response -> {
+            long remaining = delay - (System.nanoTime() - start);
+            return remaining <= 0
+                ? CompletableFuture.completedFuture(response)
+                : scheduler.delayNanos(remaining, () -> response);
+        });
+    }
+
+    @Override
+    public void onRegistryChange(HttpMethod method) {
+        if (handler instanceof HttpHandlerRegistryListener listener) {
+            listener.onRegistryChange(method);
+        }
+    }
+
+}
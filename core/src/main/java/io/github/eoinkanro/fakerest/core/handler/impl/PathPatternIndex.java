@@ -0,0 +1,305 @@
+package io.github.eoinkanro.fakerest.core.handler.impl;
+
+import io.github.eoinkanro.fakerest.core.conf.HttpHandlerPathType;
+import io.github.eoinkanro.fakerest.core.handler.HttpHandler;
+import io.github.eoinkanro.fakerest.core.handler.HttpHandlerMatch;
+import io.github.eoinkanro.fakerest.core.handler.RegisterException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * GLOB and REGEX paths of one http method. Patterns are compiled once on add and indexed
+ * by their literal prefix in a char trie, so lookup checks only patterns whose prefix is
+ * a prefix of the request path instead of every pattern.
+ * <p>
+ * Glob syntax: {@code *} - any chars except {@code /}, {@code **} - any chars, {@code ?} - one char except {@code /}.
+ * Named groups of regex are returned as path variables.
+ * <p>
+ * Not thread safe. Registry changes a copy and publishes it only after all changes are done
+ */
+class PathPatternIndex {
+
+    private static final Pattern NAMED_GROUP = Pattern.compile("\\(\\?<([a-zA-Z][a-zA-Z0-9]*)>");
+    private static final String REGEX_META_CHARS = "\\^$.|?*+()[]{}";
+
+    private final PrefixNode root;
+    private final Map<String, PathPattern> patternsByPath;
+    private long order;
+
+    PathPatternIndex() {
+        this(new PrefixNode(), new HashMap<>(), 0);
+    }
+
+    private PathPatternIndex(PrefixNode root, Map<String, PathPattern> patternsByPath, long order) {
+        this.root = root;
+        this.patternsByPath = patternsByPath;
+        this.order = order;
+    }
+
+    /**
+     * @return deep copy of index, compiled patterns and handlers are shared
+     */
+    PathPatternIndex copy() {
+        return new PathPatternIndex(root.copy(), new HashMap<>(patternsByPath), order);
+    }
+
+    /**
+     * @param path glob or regex
+     * @param type type of path
+     * @param priority higher priority is checked first
+     * @param handler handler
+     * @throws RegisterException if pattern is invalid or already exists
+     */
+    void add(String path, HttpHandlerPathType type, int priority, HttpHandler handler) throws RegisterException {
+        if (patternsByPath.containsKey(path)) {
+            throw new RegisterException("Handler with path pattern already exists: " + path);
+        }
+
+        String regex = type == HttpHandlerPathType.GLOB ? globToRegex(path) : path;
+        Pattern pattern;
+        try {
+            pattern = Pattern.compile(regex);
+        } catch (PatternSyntaxException e) {
+            throw new RegisterException("Invalid path pattern: " + path, e);
+        }
+
+        String prefix = type == HttpHandlerPathType.GLOB ? globPrefix(path) : regexPrefix(path);
+        PathPattern pathPattern = new PathPattern(path, prefix, pattern, groupNames(regex), priority, ++order, handler);
+
+        PrefixNode node = root;
+        for (int i = 0; i < prefix.length(); i++) {
+            node = node.children.computeIfAbsent(prefix.charAt(i), __ -> new PrefixNode());
+        }
+        node.patterns.add(pathPattern);
+        patternsByPath.put(path, pathPattern);
+    }
+
+    /**
+     * @param path glob or regex
+     * @return removed handler or null
+     */
+    HttpHandler remove(String path) {
+        PathPattern pathPattern = patternsByPath.remove(path);
+        if (pathPattern == null) {
+            return null;
+        }
+
+        String prefix = pathPattern.prefix();
+        PrefixNode[] nodes = new PrefixNode[prefix.length() + 1];
+        nodes[0] = root;
+        for (int i = 0; i < prefix.length(); i++) {
+            nodes[i + 1] = nodes[i].children.get(prefix.charAt(i));
+        }
+        nodes[prefix.length()].patterns.remove(pathPattern);
+        prune(nodes, prefix);
+        return pathPattern.handler();
+    }
+
+    /**
+     * @param path glob or regex added before
+     * @param handler new handler of pattern
+     */
+    void replace(String path, HttpHandler handler) {
+        PathPattern pathPattern = patternsByPath.get(path);
+        PathPattern newPathPattern = new PathPattern(path,
+            pathPattern.prefix(),
+            pathPattern.pattern(),
+            pathPattern.groupNames(),
+            pathPattern.priority(),
+            pathPattern.order(),
+            handler);
+
+        PrefixNode node = node(pathPattern.prefix());
+        node.patterns.set(node.patterns.indexOf(pathPattern), newPathPattern);
+        patternsByPath.put(path, newPathPattern);
+    }
+
+    /**
+     * @param path request path
+     * @return handler of matching pattern with the highest priority or null
+     */
+    HttpHandlerMatch match(String path) {
+        if (patternsByPath.isEmpty()) {
+            return null;
+        }
+
+        PathPattern best = null;
+        Matcher bestMatcher = null;
+        PrefixNode node = root;
+        int index = 0;
+        while (node != null) {
+            for (PathPattern candidate : node.patterns) {
+                if (best != null && !candidate.isBefore(best)) {
+                    continue;
+                }
+                Matcher matcher = candidate.pattern().matcher(path);
+                if (matcher.matches()) {
+                    best = candidate;
+                    bestMatcher = matcher;
+                }
+            }
+
+            if (index == path.length()) {
+                break;
+            }
+            node = node.children.get(path.charAt(index++));
+        }
+
+        if (best == null) {
+            return null;
+        }
+        if (best.groupNames().isEmpty()) {
+            return new HttpHandlerMatch(best.handler(), Collections.emptyMap());
+        }
+
+        Map<String, String> variables = new HashMap<>(best.groupNames().size() * 2);
+        for (String groupName : best.groupNames()) {
+            String value = bestMatcher.group(groupName);
+            if (value != null) {
+                variables.put(groupName, value);
+            }
+        }
+        return new HttpHandlerMatch(best.handler(), variables);
+    }
+
+    /**
+     * @return count of prefix nodes including root
+     */
+    int nodesCount() {
+        return root.nodesCount();
+    }
+
+    /**
+     * Remove nodes without patterns from the end of removed prefix
+     */
+    private void prune(PrefixNode[] nodes, String prefix) {
+        for (int i = prefix.length(); i > 0; i--) {
+            if (!nodes[i].isEmpty()) {
+                return;
+            }
+            nodes[i - 1].children.remove(prefix.charAt(i - 1));
+        }
+    }
+
+    private PrefixNode node(String prefix) {
+        PrefixNode node = root;
+        for (int i = 0; i < prefix.length(); i++) {
+            node = node.children.get(prefix.charAt(i));
+        }
+        return node;
+    }
+
+    static String globToRegex(String glob) {
+        StringBuilder regex = new StringBuilder(glob.length() * 2);
+        StringBuilder literal = new StringBuilder();
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            if (c == '*' || c == '?') {
+                appendLiteral(regex, literal);
+                if (c == '?') {
+                    regex.append("[^/]");
+                } else if (i + 1 < glob.length() && glob.charAt(i + 1) == '*') {
+                    regex.append(".*");
+                    i++;
+                } else {
+                    regex.append("[^/]*");
+                }
+            } else {
+                literal.append(c);
+            }
+        }
+        appendLiteral(regex, literal);
+        return regex.toString();
+    }
+
+    private static void appendLiteral(StringBuilder regex, StringBuilder literal) {
+        if (!literal.isEmpty()) {
+            regex.append(Pattern.quote(literal.toString()));
+            literal.setLength(0);
+        }
+    }
+
+    private static String globPrefix(String glob) {
+        int end = 0;
+        while (end < glob.length() && glob.charAt(end) != '*' && glob.charAt(end) != '?') {
+            end++;
+        }
+        return glob.substring(0, end);
+    }
+
+    /**
+     * Literal chars at the start of regex. Char followed by a quantifier is optional, so it isn't part of prefix.
+     * Regex with alternation has no prefix
+     */
+    private static String regexPrefix(String regex) {
+        if (regex.indexOf('|') >= 0) {
+            return "";
+        }
+        int start = regex.startsWith("^") ? 1 : 0;
+        int end = start;
+        while (end < regex.length() && REGEX_META_CHARS.indexOf(regex.charAt(end)) < 0) {
+            end++;
+        }
+        if (end < regex.length() && end > start && "?*{".indexOf(regex.charAt(end)) >= 0) {
+            end--;
+        }
+        return regex.substring(start, end);
+    }
+
+    private static List<String> groupNames(String regex) {
+        List<String> names = new ArrayList<>();
+        Matcher matcher = NAMED_GROUP.matcher(regex);
+        while (matcher.find()) {
+            names.add(matcher.group(1));
+        }
+        return names;
+    }
+
+    private static class PrefixNode {
+
+        private final Map<Character, PrefixNode> children = new HashMap<>();
+        private final List<PathPattern> patterns = new ArrayList<>();
+
+        private PrefixNode copy() {
+            PrefixNode copy = new PrefixNode();
+            children.forEach((c, child) -> copy.children.put(c, child.copy()));
+            copy.patterns.addAll(patterns);
+            return copy;
+        }
+
+        private boolean isEmpty() {
+            return patterns.isEmpty() && children.isEmpty();
+        }
+
+        private int nodesCount() {
+            int count = 1;
+            for (PrefixNode child : children.values()) {
+                count += child.nodesCount();
+            }
+            return count;
+        }
+
+    }
+
+    private record PathPattern(String path,
+                               String prefix,
+                               Pattern pattern,
+                               List<String> groupNames,
+                               int priority,
+                               long order,
+                               HttpHandler handler) {
+
+        private boolean isBefore(PathPattern other) {
+            return priority > other.priority || priority == other.priority && order < other.order;
+        }
+
+    }
+
+}
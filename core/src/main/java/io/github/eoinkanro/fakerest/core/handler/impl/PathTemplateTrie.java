@@ -0,0 +1,303 @@
+package io.github.eoinkanro.fakerest.core.handler.impl;
+
+import io.github.eoinkanro.fakerest.core.handler.HttpHandler;
+import io.github.eoinkanro.fakerest.core.handler.HttpHandlerMatch;
+import io.github.eoinkanro.fakerest.core.handler.RegisterException;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Segment trie of path templates of one http method. Template segments can be:
+ * <ul>
+ *     <li>static - {@code users}</li>
+ *     <li>variable - {@code {id}}, matches one not empty segment</li>
+ *     <li>wildcard - {@code *}, only the last segment, matches the rest of the path</li>
+ * </ul>
+ * On lookup static segments are preferred over variables, variables over wildcards.
+ * Templates that differ only by variable names are ambiguous and can't be added together.
+ * <p>
+ * Lookup backtracks to a variable when a static segment doesn't lead to a handler. Every node has
+ * only one parent, so a lookup visits a node at most once and a miss costs at most the number
+ * of nodes, i.e. the total count of segments of added templates. Backtracking isn't capped further,
+ * because a cap would turn paths that match into misses
+ * <p>
+ * Not thread safe. Registry changes a copy and publishes it only after all changes are done
+ */
+class PathTemplateTrie {
+
+    static final String WILDCARD = "*";
+
+    private static final String SEPARATOR = "/";
+    private static final String VARIABLE_START = "{";
+    private static final String VARIABLE_END = "}";
+
+    private final Node root;
+    private final Map<String, HttpHandlerMatch> staticPaths;
+
+    PathTemplateTrie() {
+        this(new Node(), new HashMap<>());
+    }
+
+    private PathTemplateTrie(Node root, Map<String, HttpHandlerMatch> staticPaths) {
+        this.root = root;
+        this.staticPaths = staticPaths;
+    }
+
+    /**
+     * @return deep copy of trie, handlers are shared
+     */
+    PathTemplateTrie copy() {
+        return new PathTemplateTrie(root.copy(), new HashMap<>(staticPaths));
+    }
+
+    /**
+     * @param template path template
+     * @param handler handler
+     * @throws RegisterException if template is invalid or a handler with the same template shape already exists.
+     * Trie isn't changed then
+     */
+    void add(String template, HttpHandler handler) throws RegisterException {
+        String[] segments = split(template);
+        Node node = root;
+        Node[] path = new Node[segments.length];
+        String[] variableNames = new String[segments.length];
+        int variablesCount = 0;
+
+        for (int i = 0; i < segments.length; i++) {
+            path[i] = node;
+            String segment = segments[i];
+            if (WILDCARD.equals(segment)) {
+                if (i != segments.length - 1) {
+                    prune(path, segments, i - 1);
+                    throw new RegisterException("Wildcard can be only the last segment of path: " + template);
+                }
+                if (node.wildcardLeaf != null) {
+                    throw ambiguous(template, node.wildcardLeaf);
+                }
+                variableNames[variablesCount++] = WILDCARD;
+                node.wildcardLeaf = new Leaf(handler, copy(variableNames, variablesCount));
+                return;
+            }
+
+            String variableName = variableName(segment);
+            if (variableName == null) {
+                node = node.staticChildren.computeIfAbsent(segment, __ -> new Node());
+            } else {
+                if (variableName.isEmpty()) {
+                    prune(path, segments, i - 1);
+                    throw new RegisterException("Variable without name in path: " + template);
+                }
+                if (node.variableChild == null) {
+                    node.variableChild = new Node();
+                }
+                variableNames[variablesCount++] = variableName;
+                node = node.variableChild;
+            }
+        }
+
+        if (node.leaf != null) {
+            throw ambiguous(template, node.leaf);
+        }
+        node.leaf = new Leaf(handler, copy(variableNames, variablesCount));
+        if (variablesCount == 0) {
+            staticPaths.put(template, new HttpHandlerMatch(handler, Collections.emptyMap()));
+        }
+    }
+
+    /**
+     * @param template path template
+     * @return removed handler or null
+     */
+    HttpHandler remove(String template) {
+        String[] segments = split(template);
+        Node node = root;
+        Node[] path = new Node[segments.length];
+        for (int i = 0; i < segments.length; i++) {
+            path[i] = node;
+            String segment = segments[i];
+            if (WILDCARD.equals(segment) && i == segments.length - 1) {
+                Leaf leaf = node.wildcardLeaf;
+                node.wildcardLeaf = null;
+                prune(path, segments, i - 1);
+                return leaf == null ? null : leaf.handler;
+            }
+
+            node = variableName(segment) == null ? node.staticChildren.get(segment) : node.variableChild;
+            if (node == null) {
+                return null;
+            }
+        }
+
+        Leaf leaf = node.leaf;
+        node.leaf = null;
+        staticPaths.remove(template);
+        prune(path, segments, segments.length - 1);
+        return leaf == null ? null : leaf.handler;
+    }
+
+    /**
+     * @param template path template added before
+     * @param handler new handler of template
+     */
+    void replace(String template, HttpHandler handler) {
+        String[] segments = split(template);
+        Node node = root;
+        for (int i = 0; i < segments.length && node != null; i++) {
+            String segment = segments[i];
+            if (WILDCARD.equals(segment) && i == segments.length - 1) {
+                node.wildcardLeaf = new Leaf(handler, node.wildcardLeaf.variableNames);
+                return;
+            }
+            node = variableName(segment) == null ? node.staticChildren.get(segment) : node.variableChild;
+        }
+
+        node.leaf = new Leaf(handler, node.leaf.variableNames);
+        if (staticPaths.containsKey(template)) {
+            staticPaths.put(template, new HttpHandlerMatch(handler, Collections.emptyMap()));
+        }
+    }
+
+    /**
+     * @param path request path
+     * @return handler and path variables or null if nothing matches
+     */
+    HttpHandlerMatch match(String path) {
+        HttpHandlerMatch staticMatch = staticPaths.get(path);
+        if (staticMatch != null) {
+            return staticMatch;
+        }
+
+        String[] segments = split(path);
+        String[] values = new String[segments.length];
+        Leaf leaf = match(root, segments, 0, values, 0);
+        if (leaf == null) {
+            return null;
+        }
+        if (leaf.variableNames.length == 0) {
+            return new HttpHandlerMatch(leaf.handler, Collections.emptyMap());
+        }
+
+        Map<String, String> variables = new HashMap<>(leaf.variableNames.length * 2);
+        for (int i = 0; i < leaf.variableNames.length; i++) {
+            variables.put(leaf.variableNames[i], values[i]);
+        }
+        return new HttpHandlerMatch(leaf.handler, variables);
+    }
+
+    static boolean isTemplate(String path) {
+        for (String segment : split(path)) {
+            if (WILDCARD.equals(segment) || variableName(segment) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Node is reached at the depth of its segment only, so recursion doesn't visit it twice
+     */
+    private Leaf match(Node node, String[] segments, int index, String[] values, int valuesCount) {
+        if (index == segments.length) {
+            return node.leaf;
+        }
+
+        String segment = segments[index];
+        Node staticChild = node.staticChildren.get(segment);
+        if (staticChild != null) {
+            Leaf leaf = match(staticChild, segments, index + 1, values, valuesCount);
+            if (leaf != null) {
+                return leaf;
+            }
+        }
+
+        Node variableChild = node.variableChild;
+        if (variableChild != null && !segment.isEmpty()) {
+            values[valuesCount] = segment;
+            Leaf leaf = match(variableChild, segments, index + 1, values, valuesCount + 1);
+            if (leaf != null) {
+                return leaf;
+            }
+        }
+
+        Leaf wildcardLeaf = node.wildcardLeaf;
+        if (wildcardLeaf != null) {
+            values[valuesCount] = String.join(SEPARATOR, Arrays.copyOfRange(segments, index, segments.length));
+            return wildcardLeaf;
+        }
+        return null;
+    }
+
+    /**
+     * Remove nodes without handlers from the end of removed template
+     */
+    private void prune(Node[] path, String[] segments, int lastIndex) {
+        for (int i = lastIndex; i >= 0; i--) {
+            Node parent = path[i];
+            String segment = segments[i];
+            boolean variable = variableName(segment) != null;
+            Node child = variable ? parent.variableChild : parent.staticChildren.get(segment);
+            if (child == null || !child.isEmpty()) {
+                return;
+            }
+            if (variable) {
+                parent.variableChild = null;
+            } else {
+                parent.staticChildren.remove(segment);
+            }
+        }
+    }
+
+    private static RegisterException ambiguous(String template, Leaf existing) {
+        return new RegisterException(String.format("Path %s is ambiguous with path %s",
+            template,
+            existing.handler.getConfig().getPath()));
+    }
+
+    private static String[] split(String path) {
+        String withoutSeparator = path.startsWith(SEPARATOR) ? path.substring(1) : path;
+        return withoutSeparator.split(SEPARATOR, -1);
+    }
+
+    private static String variableName(String segment) {
+        if (segment.length() >= 2 && segment.startsWith(VARIABLE_START) && segment.endsWith(VARIABLE_END)) {
+            return segment.substring(1, segment.length() - 1);
+        }
+        return null;
+    }
+
+    private static String[] copy(String[] values, int length) {
+        String[] result = new String[length];
+        System.arraycopy(values, 0, result, 0, length);
+        return result;
+    }
+
+    private static class Node {
+
+        private final Map<String, Node> staticChildren = new HashMap<>();
+        private Node variableChild;
+        private Leaf wildcardLeaf;
+        private Leaf leaf;
+
+        private Node copy() {
+            Node copy = new Node();
+            staticChildren.forEach((segment, child) -> copy.staticChildren.put(segment, child.copy()));
+            copy.variableChild = variableChild == null ? null : variableChild.copy();
+            copy.wildcardLeaf = wildcardLeaf;
+            copy.leaf = leaf;
+            return copy;
+        }
+
+        private boolean isEmpty() {
+            return leaf == null && wildcardLeaf == null && variableChild == null && staticChildren.isEmpty();
+        }
+
+    }
+
+    private record Leaf(HttpHandler handler, String[] variableNames) {
+
+    }
+
+}
@@ -3,30 +3,112 @@ package io.github.eoinkanro.fakerest.core.handler.impl;
 import io.github.eoinkanro.fakerest.core.conf.impl.RouterHttpHandlerConfig;
 import io.github.eoinkanro.fakerest.core.handler.HttpHandler;
 import io.github.eoinkanro.fakerest.core.handler.HttpHandlerRegistry;
+import io.github.eoinkanro.fakerest.core.handler.HttpHandlerRegistryListener;
+import io.github.eoinkanro.fakerest.core.model.HttpMethod;
 import io.github.eoinkanro.fakerest.core.model.HttpRequest;
 import io.github.eoinkanro.fakerest.core.model.HttpResponse;
 import io.javalin.http.HttpStatus;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Target is resolved on the first request and cached until a handler with the same method
+ * is registered or unregistered. Chain of routers is resolved to the last handler of it,
+ * so latency and throttle of routers in the middle of the chain aren't applied.
+ * Routers route only to handlers of their namespace
+ */
 @RequiredArgsConstructor
-public class RouterHttpHandler implements HttpHandler {
+public class RouterHttpHandler implements HttpHandler, HttpHandlerRegistryListener {
+
+    private static final int MAX_HOPS = 64;
 
     @Getter
     private final RouterHttpHandlerConfig config;
     private final HttpHandlerRegistry registry;
+    private final AtomicReference<Route> route = new AtomicReference<>(Route.unresolved());
 
     @Override
     public HttpResponse handle(HttpRequest request) {
-        HttpHandler handler = registry.find(config.getMethod(), config.getRouterPath());
+        HttpHandler handler = target();
 
         if (handler == null) {
-            return HttpResponse.builder()
-                .code(HttpStatus.NOT_FOUND.getCode())
-                .body("Cant' route to " + config.getRouterPath())
-                .build();
+            return notFound();
         }
 
         return handler.handle(request);
     }
+
+    @Override
+    public CompletableFuture<HttpResponse> handleAsync(HttpRequest request) {
+        HttpHandler handler = target();
+
+        if (handler == null) {
+            return CompletableFuture.completedFuture(notFound());
+        }
+
+        return handler.handleAsync(request);
+    }
+
+    @Override
+    public void onRegistryChange(HttpMethod method) {
+        if (method == config.getMethod()) {
+            route.set(Route.unresolved());
+        }
+    }
+
+    /**
+     * Resolved target isn't cached if registry was changed while resolving,
+     * because every change sets a new unresolved route
+     */
+    private HttpHandler target() {
+        Route current = route.get();
+        if (current.resolved()) {
+            return current.target();
+        }
+
+        HttpHandler target = resolve();
+        route.compareAndSet(current, new Route(target, true));
+        return target;
+    }
+
+    private HttpHandler resolve() {
+        HttpHandler handler = registry.find(config.getNamespace(), config.getMethod(), config.getRouterPath());
+        //cycles are rejected by registry, limit only protects from a concurrent change
+        RouterHttpHandlerConfig router = routerConfig(handler);
+        for (int hops = 0; router != null && hops < MAX_HOPS; hops++) {
+            handler = registry.find(config.getNamespace(), config.getMethod(), router.getRouterPath());
+            router = routerConfig(handler);
+        }
+        return router == null ? handler : null;
+    }
+
+    /**
+     * Router can be wrapped by latency or throttle handlers, so it's recognized by config.
+     * Variants are routed by request, so they are the last handler of chain
+     */
+    private static RouterHttpHandlerConfig routerConfig(HttpHandler handler) {
+        if (handler == null || handler instanceof VariantsHttpHandler) {
+            return null;
+        }
+        return handler.getConfig() instanceof RouterHttpHandlerConfig router ? router : null;
+    }
+
+    private HttpResponse notFound() {
+        return HttpResponse.builder()
+            .code(HttpStatus.NOT_FOUND.getCode())
+            .body("Cant' route to " + config.getRouterPath())
+            .build();
+    }
+
+    private record Route(HttpHandler target, boolean resolved) {
+
+        private static Route unresolved() {
+            return new Route(null, false);
+        }
+
+    }
+
 }
@@ -0,0 +1,96 @@
+package io.github.eoinkanro.fakerest.core.handler.impl;
+
+import io.github.eoinkanro.fakerest.core.conf.impl.StreamHttpHandlerConfig;
+import io.github.eoinkanro.fakerest.core.handler.HttpHandler;
+import io.github.eoinkanro.fakerest.core.handler.HttpHandlerScheduler;
+import io.github.eoinkanro.fakerest.core.model.HttpRequest;
+import io.github.eoinkanro.fakerest.core.model.HttpResponse;
+import io.github.eoinkanro.fakerest.core.model.HttpResponseStream;
+import io.javalin.http.ContentType;
+import io.javalin.http.HttpStatus;
+import lombok.Getter;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Streams chunks of config. Chunks are encoded on creation, every request only gets
+ * its own position in them. The first chunk is written right away, every next one
+ * after interval on the shared scheduler, so waiting streams don't hold threads
+ */
+public class StreamHttpHandler implements HttpHandler {
+
+    private static final String EVENT_STREAM_CONTENT_TYPE = "text/event-stream; charset=utf-8";
+    private static final String PLAIN_CONTENT_TYPE = ContentType.PLAIN + "; charset=utf-8";
+    private static final String EVENT_DATA_FIELD = "data: ";
+
+    @Getter
+    private final StreamHttpHandlerConfig config;
+    private final HttpHandlerScheduler scheduler;
+    private final ByteBuffer[] chunks;
+    private final int code;
+    private final String contentType;
+
+    public StreamHttpHandler(StreamHttpHandlerConfig config, HttpHandlerScheduler scheduler) {
+        this.config = config;
+        this.scheduler = scheduler;
+
+        List<String> configChunks = config.getChunks() == null ? List.of() : config.getChunks();
+        this.chunks = new ByteBuffer[configChunks.size()];
+        for (int i = 0; i < chunks.length; i++) {
+            String chunk = config.isEvents() ? toEvent(configChunks.get(i)) : configChunks.get(i);
+            chunks[i] = ByteBuffer.wrap(chunk.getBytes(StandardCharsets.UTF_8)).asReadOnlyBuffer();
+        }
+
+        this.code = config.getResponseCode() > 0 ? config.getResponseCode() : HttpStatus.OK.getCode();
+        if (config.getResponseContentType() != null) {
+            this.contentType = config.getResponseContentType();
+        } else {
+            this.contentType = config.isEvents() ? EVENT_STREAM_CONTENT_TYPE : PLAIN_CONTENT_TYPE;
+        }
+    }
+
+    @Override
+    public HttpResponse handle(HttpRequest request) {
+        return HttpResponse.builder()
+            .code(code)
+            .contentType(contentType)
+            .stream(new ChunkStream())
+            .build();
+    }
+
+    /**
+     * Every line of chunk becomes a data field of the event
+     */
+    private static String toEvent(String chunk) {
+        StringBuilder event = new StringBuilder(chunk.length() + EVENT_DATA_FIELD.length() + 2);
+        for (String line : chunk.split("\r\n|\r|\n", -1)) {
+            event.append(EVENT_DATA_FIELD).append(line).append('\n');
+        }
+        return event.append('\n').toString();
+    }
+
+    /**
+     * Chunks are requested one by one, so position needs no synchronization
+     */
+    private class ChunkStream implements HttpResponseStream {
+
+        private long number;
+
+        @Override
+        public CompletableFuture<ByteBuffer> next() {
+            if (chunks.length == 0 || (!config.isLoop() && number == chunks.length)) {
+                return CompletableFuture.completedFuture(null);
+            }
+
+            ByteBuffer chunk = chunks[(int) (number % chunks.length)].duplicate();
+            return number++ == 0
+                ? CompletableFuture.completedFuture(chunk)
+                : scheduler.delay(config.getIntervalMillis(), () -> chunk);
+        }
+
+    }
+
+}
@@ -0,0 +1,204 @@
+package io.github.eoinkanro.fakerest.core.handler.impl;
+
+import io.github.eoinkanro.fakerest.core.conf.AbstractHttpHandlerConfig;
+import io.github.eoinkanro.fakerest.core.conf.HttpHandlerThrottleConfig;
+import io.github.eoinkanro.fakerest.core.handler.HttpHandler;
+import io.github.eoinkanro.fakerest.core.handler.HttpHandlerRegistryListener;
+import io.github.eoinkanro.fakerest.core.handler.HttpHandlerScheduler;
+import io.github.eoinkanro.fakerest.core.model.EncodedBody;
+import io.github.eoinkanro.fakerest.core.model.HttpHeader;
+import io.github.eoinkanro.fakerest.core.model.HttpMethod;
+import io.github.eoinkanro.fakerest.core.model.HttpRequest;
+import io.github.eoinkanro.fakerest.core.model.HttpResponse;
+import io.github.eoinkanro.fakerest.core.model.HttpResponseStream;
+import io.javalin.http.Header;
+import io.javalin.http.HttpStatus;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Throttles responses of handler by throttle of its config. Every response is turned into
+ * a {@link ThrottledHttpResponseStream}, so the server writes it piece by piece on the shared
+ * scheduler and slow responses don't hold threads. Encoded bodies are written without compression.
+ * <p>
+ * A request counts towards the concurrency limit until its response is written or the client disconnects.
+ * Synchronous callers don't close streams, so {@link #handle(HttpRequest)} reads the throttled body as a whole.
+ * Forwards registry changes, because the handler it wraps can be a listener
+ */
+class ThrottledHttpHandler implements HttpHandler, HttpHandlerRegistryListener {
+
+    private static final HttpResponse REJECTED_RESPONSE = HttpResponse.builder()
+        .code(HttpStatus.SERVICE_UNAVAILABLE.getCode())
+        .body("Too many concurrent requests")
+        .build();
+
+    private final HttpHandler handler;
+    private final HttpHandlerThrottleConfig throttle;
+    private final HttpHandlerScheduler scheduler;
+    private final AtomicInteger activeRequests = new AtomicInteger();
+
+    ThrottledHttpHandler(HttpHandler handler, HttpHandlerScheduler scheduler) {
+        this.handler = handler;
+        this.throttle = handler.getConfig().getThrottle();
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public AbstractHttpHandlerConfig getConfig() {
+        return handler.getConfig();
+    }
+
+    @Override
+    public HttpResponse handle(HttpRequest request) {
+        HttpResponse response = handleAsync(request).join();
+        return response.getStream() == null ? response : drain(response);
+    }
+
+    @Override
+    public CompletableFuture<HttpResponse> handleAsync(HttpRequest request) {
+        if (!acquire()) {
+            return CompletableFuture.completedFuture(REJECTED_RESPONSE);
+        }
+
+        CompletableFuture<HttpResponse> response;
+        try {
+            response = handler.handleAsync(request);
+        } catch (RuntimeException e) {
+            release();
+            throw e;
+        }
+        return response
+            .whenComplete((result, e) -> {
+                if (e != null) {
+                    release();
+                }
+            })
+            .thenApply(this::throttle);
+    }
+
+    @Override
+    public void onRegistryChange(HttpMethod method) {
+        if (handler instanceof HttpHandlerRegistryListener listener) {
+            listener.onRegistryChange(method);
+        }
+    }
+
+    private HttpResponse throttle(HttpResponse response) {
+        HttpResponse.HttpResponseBuilder throttled = HttpResponse.builder()
+            .code(response.getCode())
+            .contentType(response.getContentType())
+            .headers(response.getHeaders());
+
+        HttpResponseStream stream;
+        if (response.getStream() != null) {
+            stream = response.getStream();
+        } else if (response.getEncodedBody() != null) {
+            EncodedBody body = response.getEncodedBody();
+            throttled.contentType(body.getContentType())
+                .header(new HttpHeader(Header.CONTENT_LENGTH, Integer.toString(body.getContentLength())));
+            stream = new SingleChunkStream(body.getContent());
+        } else if (response.getBody() != null) {
+            byte[] body = response.getBody().getBytes(StandardCharsets.UTF_8);
+            throttled.header(new HttpHeader(Header.CONTENT_LENGTH, Integer.toString(body.length)));
+            stream = new SingleChunkStream(ByteBuffer.wrap(body));
+        } else {
+            stream = new SingleChunkStream(null);
+        }
+
+        return throttled
+            .stream(new ReleasingStream(new ThrottledHttpResponseStream(stream,
+                throttle.getBytesPerSecond(),
+                throttle.getBodyDelayMillis(),
+                scheduler)))
+            .build();
+    }
+
+    /**
+     * Stream is closed after it's read, so the request is released
+     */
+    private static HttpResponse drain(HttpResponse response) {
+        HttpResponseStream stream = response.getStream();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try {
+            for (ByteBuffer chunk = stream.next().join(); chunk != null; chunk = stream.next().join()) {
+                byte[] bytes = new byte[chunk.remaining()];
+                chunk.get(bytes);
+                body.writeBytes(bytes);
+            }
+        } finally {
+            stream.close();
+        }
+
+        //length is set by server for encoded body
+        return HttpResponse.builder()
+            .code(response.getCode())
+            .headers(response.getHeaders().stream()
+                .filter(header -> !Header.CONTENT_LENGTH.equalsIgnoreCase(header.name()))
+                .toList())
+            .encodedBody(EncodedBody.wrap(ByteBuffer.wrap(body.toByteArray()), response.getContentType()))
+            .build();
+    }
+
+    private boolean acquire() {
+        if (throttle.getMaxConcurrentRequests() <= 0) {
+            return true;
+        }
+        if (activeRequests.incrementAndGet() > throttle.getMaxConcurrentRequests()) {
+            activeRequests.decrementAndGet();
+            return false;
+        }
+        return true;
+    }
+
+    private void release() {
+        if (throttle.getMaxConcurrentRequests() > 0) {
+            activeRequests.decrementAndGet();
+        }
+    }
+
+    private static class SingleChunkStream implements HttpResponseStream {
+
+        private ByteBuffer chunk;
+
+        private SingleChunkStream(ByteBuffer chunk) {
+            this.chunk = chunk;
+        }
+
+        @Override
+        public CompletableFuture<ByteBuffer> next() {
+            ByteBuffer next = chunk;
+            chunk = null;
+            return CompletableFuture.completedFuture(next);
+        }
+
+    }
+
+    private class ReleasingStream implements HttpResponseStream {
+
+        private final HttpResponseStream stream;
+
+        private ReleasingStream(HttpResponseStream stream) {
+            this.stream = stream;
+        }
+
+        @Override
+        public CompletableFuture<ByteBuffer> next() {
+            return stream.next();
+        }
+
+        @Override
+        public void close() {
+            try {
+                stream.close();
+            } finally {
+                release();
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,98 @@
+package io.github.eoinkanro.fakerest.core.handler.impl;
+
+import io.github.eoinkanro.fakerest.core.handler.HttpHandlerScheduler;
+import io.github.eoinkanro.fakerest.core.model.HttpResponseStream;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits bandwidth of a stream. Chunks are split to pieces written at least 20 times per second,
+ * so bandwidth is even, and every piece is delayed on the shared scheduler until the bytes
+ * before it fit the bandwidth. Waiting pieces don't hold threads.
+ * <p>
+ * Pieces are requested one by one, so state needs no synchronization
+ */
+class ThrottledHttpResponseStream implements HttpResponseStream {
+
+    private static final int MIN_PIECES_PER_SECOND = 20;
+    private static final int MAX_PIECE_SIZE = 64 * 1024;
+    private static final double NANOS_IN_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final HttpResponseStream stream;
+    private final long bytesPerSecond;
+    private final long firstPieceDelayNanos;
+    private final HttpHandlerScheduler scheduler;
+    private final int pieceSize;
+
+    private ByteBuffer chunk;
+    private boolean started;
+    private long start;
+    private long written;
+
+    /**
+     * @param bytesPerSecond max bandwidth, not limited if not positive
+     * @param firstPieceDelayMillis delay of the first piece
+     */
+    ThrottledHttpResponseStream(HttpResponseStream stream,
+                                long bytesPerSecond,
+                                long firstPieceDelayMillis,
+                                HttpHandlerScheduler scheduler) {
+        this.stream = stream;
+        this.bytesPerSecond = bytesPerSecond;
+        this.firstPieceDelayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, firstPieceDelayMillis));
+        this.scheduler = scheduler;
+        this.pieceSize = bytesPerSecond > 0
+            ? (int) Math.max(1, Math.min(MAX_PIECE_SIZE, bytesPerSecond / MIN_PIECES_PER_SECOND))
+            : Integer.MAX_VALUE;
+    }
+
+    @Override
+    public CompletableFuture<ByteBuffer> next() {
+        if (chunk != null && chunk.hasRemaining()) {
+            return delay(nextPiece());
+        }
+        return stream.next().thenCompose(next -> {
+            if (next == null) {
+                return CompletableFuture.completedFuture(null);
+            }
+            chunk = next;
+            return delay(nextPiece());
+        });
+    }
+
+    @Override
+    public void close() {
+        stream.close();
+    }
+
+    private ByteBuffer nextPiece() {
+        if (chunk.remaining() <= pieceSize) {
+            ByteBuffer piece = chunk;
+            chunk = null;
+            return piece;
+        }
+        ByteBuffer piece = chunk.slice(chunk.position(), pieceSize);
+        chunk.position(chunk.position() + pieceSize);
+        return piece;
+    }
+
+    /**
+     * Piece is due when the bytes written before it would be written at the max bandwidth
+     */
+    private CompletableFuture<ByteBuffer> delay(ByteBuffer piece) {
+        long now = System.nanoTime();
+        if (!started) {
+            start = now + firstPieceDelayNanos;
+            started = true;
+        }
+
+        long due = bytesPerSecond > 0 ? start + (long) (written * NANOS_IN_SECOND / bytesPerSecond) : start;
+        written += piece.remaining();
+        return due <= now
+            ? CompletableFuture.completedFuture(piece)
+            : scheduler.delayNanos(due - now, () -> piece);
+    }
+
+}
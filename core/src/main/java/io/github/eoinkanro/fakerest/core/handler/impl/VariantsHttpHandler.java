@@ -0,0 +1,330 @@
+package io.github.eoinkanro.fakerest.core.handler.impl;
+
+import io.github.eoinkanro.fakerest.core.conf.AbstractHttpHandlerConfig;
+import io.github.eoinkanro.fakerest.core.conf.HttpRequestMatcherConfig;
+import io.github.eoinkanro.fakerest.core.conf.HttpRequestMatcherSource;
+import io.github.eoinkanro.fakerest.core.handler.HttpHandler;
+import io.github.eoinkanro.fakerest.core.handler.RegisterException;
+import io.github.eoinkanro.fakerest.core.model.HttpRequest;
+import io.github.eoinkanro.fakerest.core.model.HttpResponse;
+import io.javalin.http.HttpStatus;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+import tools.jackson.databind.node.MissingNode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Handlers registered with the same method and path, chosen by their request matchers.
+ * Every variant is indexed by value of its first equality matcher, so lookup checks only
+ * variants with the same value of request field instead of all of them. If several variants
+ * match, the one with more matchers wins, then the one registered first. Variant without
+ * matchers is used when nothing else matches.
+ * <p>
+ * Immutable, registry creates a new one on every change
+ */
+class VariantsHttpHandler implements HttpHandler {
+
+    private static final JsonMapper JSON_MAPPER = JsonMapper.builder().build();
+
+    private final List<Variant> variants;
+    private final HttpHandler defaultHandler;
+    private final Map<MatcherKey, Map<String, List<Variant>>> indexedVariants;
+    private final List<Variant> notIndexedVariants;
+
+    private VariantsHttpHandler(List<Variant> variants, HttpHandler defaultHandler) {
+        this.variants = variants;
+        this.defaultHandler = defaultHandler;
+        this.indexedVariants = new HashMap<>();
+        this.notIndexedVariants = new ArrayList<>();
+
+        for (Variant variant : variants) {
+            Matcher indexMatcher = variant.matchers().stream()
+                .filter(matcher -> matcher.equalTo() != null)
+                .findFirst()
+                .orElse(null);
+            if (indexMatcher == null) {
+                notIndexedVariants.add(variant);
+            } else {
+                indexedVariants.computeIfAbsent(indexMatcher.key(), __ -> new HashMap<>())
+                    .computeIfAbsent(indexMatcher.equalTo(), __ -> new ArrayList<>())
+                    .add(variant);
+            }
+        }
+    }
+
+    /**
+     * @param handler the only handler
+     * @return variants of one handler
+     * @throws RegisterException if matchers of handler are invalid
+     */
+    static VariantsHttpHandler of(HttpHandler handler) throws RegisterException {
+        return new VariantsHttpHandler(Collections.emptyList(), null).with(handler);
+    }
+
+    /**
+     * @param handler handler to add
+     * @return new variants with handler
+     * @throws RegisterException if matchers of handler are invalid or the same as matchers of another variant
+     */
+    VariantsHttpHandler with(HttpHandler handler) throws RegisterException {
+        AbstractHttpHandlerConfig config = handler.getConfig();
+        if ((!variants.isEmpty() || defaultHandler != null) && HttpHandlerRegistryImpl.pathType(getConfig()) != HttpHandlerRegistryImpl.pathType(config)) {
+            throw new RegisterException(String.format("Handlers with method: %s and path: %s must have the same path type",
+                config.getMethod(),
+                config.getPath()));
+        }
+
+        if (!config.hasMatchers()) {
+            if (defaultHandler != null) {
+                throw alreadyExists(config);
+            }
+            return new VariantsHttpHandler(variants, handler);
+        }
+
+        List<Matcher> matchers = compile(config);
+        for (Variant variant : variants) {
+            if (new HashSet<>(variant.handler().getConfig().getMatchers()).equals(new HashSet<>(config.getMatchers()))) {
+                throw alreadyExists(config);
+            }
+        }
+
+        long order = variants.isEmpty() ? 0 : variants.get(variants.size() - 1).order() + 1;
+        List<Variant> newVariants = new ArrayList<>(variants);
+        newVariants.add(new Variant(handler, matchers, order));
+        return new VariantsHttpHandler(newVariants, defaultHandler);
+    }
+
+    /**
+     * @param handler handler to remove
+     * @return new variants without handler, the only handler if it has no matchers or null if nothing left
+     */
+    HttpHandler without(HttpHandler handler) {
+        List<Variant> newVariants = new ArrayList<>(variants);
+        newVariants.removeIf(variant -> variant.handler() == handler);
+        HttpHandler newDefaultHandler = defaultHandler == handler ? null : defaultHandler;
+
+        if (newVariants.isEmpty()) {
+            return newDefaultHandler;
+        }
+        return new VariantsHttpHandler(newVariants, newDefaultHandler);
+    }
+
+    /**
+     * @return all handlers of variants
+     */
+    List<HttpHandler> handlers() {
+        List<HttpHandler> handlers = new ArrayList<>(variants.size() + 1);
+        variants.forEach(variant -> handlers.add(variant.handler()));
+        if (defaultHandler != null) {
+            handlers.add(defaultHandler);
+        }
+        return handlers;
+    }
+
+    /**
+     * @return config of the first variant, all variants have the same method and path
+     */
+    @Override
+    public AbstractHttpHandlerConfig getConfig() {
+        return variants.isEmpty() ? defaultHandler.getConfig() : variants.get(0).handler().getConfig();
+    }
+
+    @Override
+    public HttpResponse handle(HttpRequest request) {
+        HttpHandler handler = find(request);
+        if (handler == null) {
+            return notFound();
+        }
+        return handler.handle(request);
+    }
+
+    @Override
+    public CompletableFuture<HttpResponse> handleAsync(HttpRequest request) {
+        HttpHandler handler = find(request);
+        if (handler == null) {
+            return CompletableFuture.completedFuture(notFound());
+        }
+        return handler.handleAsync(request);
+    }
+
+    HttpHandler find(HttpRequest request) {
+        RequestValues values = new RequestValues(request);
+        Variant best = null;
+
+        for (Map.Entry<MatcherKey, Map<String, List<Variant>>> entry : indexedVariants.entrySet()) {
+            for (String value : values.get(entry.getKey())) {
+                List<Variant> candidates = entry.getValue().get(value);
+                if (candidates != null) {
+                    best = best(best, candidates, values);
+                }
+            }
+        }
+        best = best(best, notIndexedVariants, values);
+
+        return best == null ? defaultHandler : best.handler();
+    }
+
+    private Variant best(Variant best, List<Variant> candidates, RequestValues values) {
+        for (Variant candidate : candidates) {
+            if ((best == null || candidate.isBefore(best)) && candidate.matches(values)) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    private HttpResponse notFound() {
+        AbstractHttpHandlerConfig config = getConfig();
+        return HttpResponse.builder()
+            .code(HttpStatus.NOT_FOUND.getCode())
+            .body("There is no handlers with path: " + config.getPath() + " matching request")
+            .build();
+    }
+
+    private static List<Matcher> compile(AbstractHttpHandlerConfig config) throws RegisterException {
+        List<Matcher> matchers = new ArrayList<>(config.getMatchers().size());
+        for (HttpRequestMatcherConfig matcherConfig : config.getMatchers()) {
+            if (matcherConfig == null || matcherConfig.getSource() == null || matcherConfig.getName() == null
+                || (matcherConfig.getEqualTo() == null) == (matcherConfig.getRegex() == null)) {
+                throw new RegisterException(String.format("Matcher of handler with method: %s and path: %s must have source, name and one of equalTo or regex",
+                    config.getMethod(),
+                    config.getPath()));
+            }
+
+            Pattern pattern = null;
+            if (matcherConfig.getRegex() != null) {
+                try {
+                    pattern = Pattern.compile(matcherConfig.getRegex());
+                } catch (PatternSyntaxException e) {
+                    throw new RegisterException("Invalid matcher regex: " + matcherConfig.getRegex(), e);
+                }
+            }
+            matchers.add(new Matcher(MatcherKey.of(matcherConfig), matcherConfig.getEqualTo(), pattern));
+        }
+        return matchers;
+    }
+
+    private static RegisterException alreadyExists(AbstractHttpHandlerConfig config) {
+        return new RegisterException(String.format("Handler with method: %s and path: %s already exists",
+            config.getMethod(),
+            config.getPath()));
+    }
+
+    private record Variant(HttpHandler handler, List<Matcher> matchers, long order) {
+
+        private boolean matches(RequestValues values) {
+            for (Matcher matcher : matchers) {
+                if (!matcher.matches(values.get(matcher.key()))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * More specific variant or registered earlier
+         */
+        private boolean isBefore(Variant other) {
+            if (matchers.size() != other.matchers.size()) {
+                return matchers.size() > other.matchers.size();
+            }
+            return order < other.order;
+        }
+
+    }
+
+    /**
+     * Matches if any value of request field matches, query param can have several values
+     */
+    private record Matcher(MatcherKey key, String equalTo, Pattern regex) {
+
+        private boolean matches(List<String> values) {
+            for (String value : values) {
+                if (equalTo != null ? equalTo.equals(value) : regex.matcher(value).matches()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+    }
+
+    /**
+     * Header names are case insensitive, so they are compared in lower case.
+     * Body field name without leading slash is a field of root object
+     */
+    private record MatcherKey(HttpRequestMatcherSource source, String name) {
+
+        private static MatcherKey of(HttpRequestMatcherConfig config) {
+            String name = switch (config.getSource()) {
+                case HEADER -> config.getName().toLowerCase(Locale.ROOT);
+                case QUERY -> config.getName();
+                case BODY -> config.getName().startsWith("/") ? config.getName() : "/" + config.getName();
+            };
+            return new MatcherKey(config.getSource(), name);
+        }
+
+    }
+
+    /**
+     * Values of request fields, body is parsed only once and only if a matcher needs it.
+     * Query params are read with all their values and without path variables
+     */
+    private static class RequestValues {
+
+        private final HttpRequest request;
+        private JsonNode body;
+
+        private RequestValues(HttpRequest request) {
+            this.request = request;
+        }
+
+        private List<String> get(MatcherKey key) {
+            return switch (key.source()) {
+                case HEADER -> valueOf(request.getHeader(key.name()));
+                case QUERY -> request.getQueryParams().getOrDefault(key.name(), Collections.emptyList());
+                case BODY -> valueOf(bodyValue(key.name()));
+            };
+        }
+
+        private static List<String> valueOf(String value) {
+            return value == null ? Collections.emptyList() : List.of(value);
+        }
+
+        private String bodyValue(String pointer) {
+            if (body == null) {
+                body = parseBody();
+            }
+
+            JsonNode node = body.at(pointer);
+            if (node.isMissingNode() || node.isNull()) {
+                return null;
+            }
+            return node.isValueNode() ? node.asString() : node.toString();
+        }
+
+        private JsonNode parseBody() {
+            String requestBody = request.getBody();
+            if (requestBody == null || requestBody.isBlank()) {
+                return MissingNode.getInstance();
+            }
+            try {
+                return JSON_MAPPER.readTree(requestBody);
+            } catch (Exception e) {
+                return MissingNode.getInstance();
+            }
+        }
+
+    }
+
+}
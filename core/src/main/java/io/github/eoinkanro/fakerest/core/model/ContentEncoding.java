@@ -0,0 +1,19 @@
+package io.github.eoinkanro.fakerest.core.model;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum ContentEncoding {
+
+    IDENTITY("identity"),
+    GZIP("gzip"),
+    DEFLATE("deflate");
+
+    /**
+     * Name in Accept-Encoding and Content-Encoding headers
+     */
+    private final String token;
+
+}
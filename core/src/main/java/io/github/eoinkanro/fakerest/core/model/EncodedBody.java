@@ -0,0 +1,221 @@
+package io.github.eoinkanro.fakerest.core.model;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Response body encoded once. Bytes are kept in read-only direct buffers,
+ * every response writes its own view of them without copying.
+ * Body can also keep compressed variants of itself, they are compressed once too
+ */
+@EqualsAndHashCode
+public class EncodedBody {
+
+    private final Map<ContentEncoding, ByteBuffer> contents;
+    @Getter
+    private final String contentType;
+
+    private EncodedBody(Map<ContentEncoding, ByteBuffer> contents, String contentType) {
+        this.contents = contents;
+        this.contentType = contentType;
+    }
+
+    /**
+     * @param body body to encode in UTF-8
+     * @param contentType value of Content-Type header
+     * @return encoded body
+     */
+    public static EncodedBody of(String body, String contentType) {
+        return of(body.getBytes(StandardCharsets.UTF_8), contentType);
+    }
+
+    /**
+     * @param body bytes of body, they are copied
+     * @param contentType value of Content-Type header
+     * @return encoded body
+     */
+    public static EncodedBody of(byte[] body, String contentType) {
+        Map<ContentEncoding, ByteBuffer> contents = new EnumMap<>(ContentEncoding.class);
+        contents.put(ContentEncoding.IDENTITY, toBuffer(body));
+        return new EncodedBody(contents, contentType);
+    }
+
+    /**
+     * @param content bytes of body, they aren't copied, so they must not change
+     * @param contentType value of Content-Type header
+     * @return body over content
+     */
+    public static EncodedBody wrap(ByteBuffer content, String contentType) {
+        Map<ContentEncoding, ByteBuffer> contents = new EnumMap<>(ContentEncoding.class);
+        contents.put(ContentEncoding.IDENTITY, content.asReadOnlyBuffer());
+        return new EncodedBody(contents, contentType);
+    }
+
+    /**
+     * @param minLength min length of body to compress
+     * @return body with gzip and deflate variants, or this body if it's shorter than minLength.
+     * A variant that isn't shorter than the body is dropped
+     */
+    public EncodedBody compress(int minLength) {
+        if (getContentLength() < minLength || isCompressed()) {
+            return this;
+        }
+
+        ByteBuffer identity = contents.get(ContentEncoding.IDENTITY);
+        byte[] body = new byte[identity.remaining()];
+        identity.duplicate().get(body);
+
+        Map<ContentEncoding, ByteBuffer> newContents = new EnumMap<>(contents);
+        for (ContentEncoding encoding : ContentEncoding.values()) {
+            if (encoding == ContentEncoding.IDENTITY) {
+                continue;
+            }
+            byte[] compressed = compress(body, encoding);
+            if (compressed.length < body.length) {
+                newContents.put(encoding, toBuffer(compressed));
+            }
+        }
+        return new EncodedBody(newContents, contentType);
+    }
+
+    /**
+     * @return true if body has compressed variants, then responses depend on Accept-Encoding
+     */
+    public boolean isCompressed() {
+        return contents.size() > 1;
+    }
+
+    /**
+     * @param acceptEncoding value of Accept-Encoding header, can be null
+     * @return the most preferred by client encoding body has, identity if client accepts none of them
+     */
+    public ContentEncoding negotiate(String acceptEncoding) {
+        if (acceptEncoding == null || !isCompressed()) {
+            return ContentEncoding.IDENTITY;
+        }
+
+        ContentEncoding best = ContentEncoding.IDENTITY;
+        double bestQuality = 0;
+        for (ContentEncoding encoding : contents.keySet()) {
+            if (encoding == ContentEncoding.IDENTITY) {
+                continue;
+            }
+            double quality = quality(acceptEncoding, encoding.getToken());
+            if (quality > bestQuality) {
+                best = encoding;
+                bestQuality = quality;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * @return new view of body bytes, it can be read without affecting other views
+     */
+    public ByteBuffer getContent() {
+        return getContent(ContentEncoding.IDENTITY);
+    }
+
+    /**
+     * @param encoding encoding returned by negotiate
+     * @return new view of body bytes in the encoding
+     */
+    public ByteBuffer getContent(ContentEncoding encoding) {
+        return contents.get(encoding).duplicate();
+    }
+
+    public int getContentLength() {
+        return getContentLength(ContentEncoding.IDENTITY);
+    }
+
+    public int getContentLength(ContentEncoding encoding) {
+        return contents.get(encoding).remaining();
+    }
+
+    /**
+     * @return q value of token in Accept-Encoding, wildcard is used if token isn't listed, 0 if nothing matches
+     */
+    private static double quality(String acceptEncoding, String token) {
+        double wildcard = 0;
+        for (String element : acceptEncoding.split(",")) {
+            String[] parts = element.split(";");
+            String name = parts[0].trim().toLowerCase(Locale.ROOT);
+            if (name.equals(token)) {
+                return parseQuality(parts);
+            }
+            if (name.equals("*")) {
+                wildcard = parseQuality(parts);
+            }
+        }
+        return wildcard;
+    }
+
+    private static double parseQuality(String[] parts) {
+        for (int i = 1; i < parts.length; i++) {
+            String parameter = parts[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2));
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    private static byte[] compress(byte[] body, ContentEncoding encoding) {
+        ByteArrayOutputStream result = new ByteArrayOutputStream(body.length / 4);
+        try (OutputStream output = compressingStream(result, encoding)) {
+            output.write(body);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return result.toByteArray();
+    }
+
+    /**
+     * Deflater of deflate stream is ended on close, gzip stream ends its own deflater
+     */
+    private static OutputStream compressingStream(OutputStream output, ContentEncoding encoding) throws IOException {
+        return switch (encoding) {
+            case GZIP -> new GZIPOutputStream(output) {
+                {
+                    def.setLevel(Deflater.BEST_COMPRESSION);
+                }
+            };
+            case DEFLATE -> new DeflaterOutputStream(output, new Deflater(Deflater.BEST_COMPRESSION)) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        def.end();
+                    }
+                }
+            };
+            case IDENTITY -> output;
+        };
+    }
+
+    private static ByteBuffer toBuffer(byte[] bytes) {
+        return ByteBuffer.allocateDirect(bytes.length)
+            .put(bytes)
+            .flip()
+            .asReadOnlyBuffer();
+    }
+
+}
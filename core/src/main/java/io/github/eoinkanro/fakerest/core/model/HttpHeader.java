@@ -0,0 +1,7 @@
+package io.github.eoinkanro.fakerest.core.model;
+
+/**
+ * Header of response, a header with several values is added several times
+ */
+public record HttpHeader(String name, String value) {
+}
@@ -1,19 +1,136 @@
 package io.github.eoinkanro.fakerest.core.model;
 
 import lombok.Builder;
-import lombok.EqualsAndHashCode;
-import lombok.Getter;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
 
-@Getter
-@Builder
-@EqualsAndHashCode
+/**
+ * View of incoming request. Every part is read from source and copied only on the first access,
+ * so a handler that doesn't look at the request costs nothing. Equality reads every part through
+ * its getter, so it doesn't depend on which parts were read before. Not thread safe
+ */
 public class HttpRequest {
 
+    private final HttpRequestSource source;
+
     private String body;
+    private byte[] bodyBytes;
+    private Map<String, List<String>> queryParams;
+    private Map<String, String> variables;
+    private Map<String, String> pathVariables;
+    private Map<String, String> headers;
+    private Map<String, String> cookies;
+
+    @Builder
+    private HttpRequest(HttpRequestSource source, String body) {
+        this.source = source;
+        this.body = body;
+    }
+
+    public String getBody() {
+        if (body == null && source != null) {
+            body = source.body();
+        }
+        return body;
+    }
+
+    public byte[] getBodyBytes() {
+        if (bodyBytes == null) {
+            if (source != null) {
+                bodyBytes = source.bodyBytes();
+            } else if (body != null) {
+                bodyBytes = body.getBytes(StandardCharsets.UTF_8);
+            }
+        }
+        return bodyBytes;
+    }
+
+    /**
+     * @return all values of every query param, read-only
+     */
+    public Map<String, List<String>> getQueryParams() {
+        if (queryParams == null) {
+            queryParams = source == null ? Collections.emptyMap() : Collections.unmodifiableMap(source.queryParams());
+        }
+        return queryParams;
+    }
+
+    /**
+     * @return query params, several values of one param are joined with ", "
+     */
+    public Map<String, String> getVariables() {
+        if (variables == null) {
+            variables = new HashMap<>();
+            getQueryParams().forEach((key, values) -> variables.put(key, String.join(", ", values)));
+        }
+        return variables;
+    }
+
+    public Map<String, String> getPathVariables() {
+        if (pathVariables == null) {
+            pathVariables = source == null ? new HashMap<>() : new HashMap<>(source.pathVariables());
+        }
+        return pathVariables;
+    }
+
+    /**
+     * @return headers, names are case insensitive
+     */
+    public Map<String, String> getHeaders() {
+        if (headers == null) {
+            headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            if (source != null) {
+                headers.putAll(source.headers());
+            }
+        }
+        return headers;
+    }
+
+    /**
+     * Reads a single header without copying all of them
+     *
+     * @param name case insensitive name
+     * @return value of header or null
+     */
+    public String getHeader(String name) {
+        if (headers == null && source != null) {
+            return source.header(name);
+        }
+        return getHeaders().get(name);
+    }
+
+    public Map<String, String> getCookies() {
+        if (cookies == null) {
+            cookies = source == null ? new HashMap<>() : new HashMap<>(source.cookies());
+        }
+        return cookies;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof HttpRequest other)) {
+            return false;
+        }
+        return Objects.equals(getBody(), other.getBody())
+            && getQueryParams().equals(other.getQueryParams())
+            && getVariables().equals(other.getVariables())
+            && getPathVariables().equals(other.getPathVariables())
+            && getHeaders().equals(other.getHeaders())
+            && getCookies().equals(other.getCookies());
+    }
 
-    private final Map<String, String> variables = new HashMap<>();
+    @Override
+    public int hashCode() {
+        return Objects.hash(getBody(), getQueryParams(), getVariables(), getPathVariables(), getHeaders(), getCookies());
+    }
 
 }
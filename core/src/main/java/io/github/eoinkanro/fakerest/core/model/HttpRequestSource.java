@@ -0,0 +1,32 @@
+package io.github.eoinkanro.fakerest.core.model;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Incoming request of a server. HttpRequest reads its parts only when a handler asks for them
+ */
+public interface HttpRequestSource {
+
+    byte[] bodyBytes();
+
+    String body();
+
+    /**
+     * @return all values of every query param
+     */
+    Map<String, List<String>> queryParams();
+
+    Map<String, String> pathVariables();
+
+    Map<String, String> headers();
+
+    /**
+     * @param name case insensitive name
+     * @return value of header or null
+     */
+    String header(String name);
+
+    Map<String, String> cookies();
+
+}
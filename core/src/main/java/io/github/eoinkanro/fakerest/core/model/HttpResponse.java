@@ -3,6 +3,9 @@ package io.github.eoinkanro.fakerest.core.model;
 import lombok.Builder;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
+import lombok.Singular;
+
+import java.util.List;
 
 @Getter
 @Builder
@@ -11,5 +14,23 @@ public class HttpResponse {
 
     private int code;
     private String body;
+    /**
+     * Content type of body, default content type of server is used if not set
+     */
+    private String contentType;
+    /**
+     * Headers in order of adding, a header with several values is added several times
+     */
+    @Singular
+    private List<HttpHeader> headers;
+
+    /**
+     * Already encoded body, it's written instead of body if set
+     */
+    private EncodedBody encodedBody;
+    /**
+     * Body written in chunks, it's written instead of body if set
+     */
+    private HttpResponseStream stream;
 
 }
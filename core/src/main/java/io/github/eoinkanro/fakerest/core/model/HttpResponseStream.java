@@ -0,0 +1,26 @@
+package io.github.eoinkanro.fakerest.core.model;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Body of response that is written in chunks. Every chunk is flushed to the client as soon as
+ * its future is completed, so the connection doesn't hold a thread while the next chunk isn't ready.
+ * <p>
+ * Chunks are requested one by one, the next one only after the previous one is written
+ */
+@FunctionalInterface
+public interface HttpResponseStream {
+
+    /**
+     * @return future of next chunk, it's completed with null when the stream is over
+     */
+    CompletableFuture<ByteBuffer> next();
+
+    /**
+     * Called once when the stream is over, failed or the client disconnected
+     */
+    default void close() {
+    }
+
+}
@@ -0,0 +1,44 @@
+package io.github.eoinkanro.fakerest.core.server.impl;
+
+import io.github.eoinkanro.fakerest.core.model.HttpRequestSource;
+import io.javalin.http.Context;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Javalin reads body and parses query params on the first call and caches them
+ */
+record JavalinHttpRequestSource(Context context, Map<String, String> pathVariables) implements HttpRequestSource {
+
+    @Override
+    public byte[] bodyBytes() {
+        return context.bodyAsBytes();
+    }
+
+    @Override
+    public String body() {
+        return context.body();
+    }
+
+    @Override
+    public Map<String, List<String>> queryParams() {
+        return context.queryParamMap();
+    }
+
+    @Override
+    public Map<String, String> headers() {
+        return context.headerMap();
+    }
+
+    @Override
+    public String header(String name) {
+        return context.header(name);
+    }
+
+    @Override
+    public Map<String, String> cookies() {
+        return context.cookieMap();
+    }
+
+}
@@ -3,20 +3,41 @@ package io.github.eoinkanro.fakerest.core.server.impl;
 import io.github.eoinkanro.fakerest.core.conf.Config;
 import io.github.eoinkanro.fakerest.core.conf.ConfigLoader;
 import io.github.eoinkanro.fakerest.core.handler.HttpHandlerRegistry;
+import io.github.eoinkanro.fakerest.core.model.ContentEncoding;
+import io.github.eoinkanro.fakerest.core.model.EncodedBody;
+import io.github.eoinkanro.fakerest.core.model.HttpHeader;
 import io.github.eoinkanro.fakerest.core.model.HttpMethod;
-import io.github.eoinkanro.fakerest.core.handler.HttpHandler;
+import io.github.eoinkanro.fakerest.core.handler.HttpHandlerMatch;
 import io.github.eoinkanro.fakerest.core.model.HttpRequest;
 import io.github.eoinkanro.fakerest.core.model.HttpResponse;
+import io.github.eoinkanro.fakerest.core.model.HttpResponseStream;
 import io.github.eoinkanro.fakerest.core.server.*;
 import io.javalin.Javalin;
+import io.javalin.config.JavalinConfig;
 import io.javalin.http.Context;
+import io.javalin.http.Header;
 import io.javalin.http.HttpStatus;
+import io.javalin.util.ConcurrencyUtil;
 import jakarta.inject.Singleton;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.eclipse.jetty.alpn.server.ALPNServerConnectionFactory;
+import org.eclipse.jetty.http2.HTTP2Cipher;
+import org.eclipse.jetty.http2.server.HTTP2CServerConnectionFactory;
+import org.eclipse.jetty.http2.server.HTTP2ServerConnectionFactory;
+import org.eclipse.jetty.server.*;
+import org.eclipse.jetty.util.ssl.SslContextFactory;
+import org.eclipse.jetty.util.thread.ThreadPool;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Slf4j
 @Singleton
@@ -25,11 +46,15 @@ public class JavalinServer implements HttpServer {
 
     private static final String BASE_PATH_VARIABLE = "entrance";
     private static final String BASE_PATH = "/<" + BASE_PATH_VARIABLE + ">";
+    private static final String THREAD_POOL_NAME = "MockServerThreadPool";
+    private static final String APP_DIR = "user.dir";
 
     private final ConfigLoader configLoader;
     private final HttpHandlerRegistry registry;
 
     private Javalin server;
+    private ThreadPool threadPool;
+    private MockListeners listeners;
 
     @Override
     public void init() {
@@ -41,7 +66,16 @@ public class JavalinServer implements HttpServer {
             log.error("Can't load config", e);
         }
 
-        server = Javalin.create()
+        if (config.isAwaitHandlersOnStartup()) {
+            awaitHandlers();
+        }
+
+        Config serverConfig = config;
+        listeners = new MockListeners(config);
+        server = Javalin.create(javalinConfig -> {
+                configureThreads(javalinConfig, serverConfig);
+                configureConnectors(javalinConfig, serverConfig);
+            })
             .get(BASE_PATH, ctx -> process(HttpMethod.GET, ctx))
             .post(BASE_PATH, ctx -> process(HttpMethod.POST, ctx))
             .put(BASE_PATH, ctx -> process(HttpMethod.PUT, ctx))
@@ -49,48 +83,331 @@ public class JavalinServer implements HttpServer {
             .head(BASE_PATH, ctx -> process(HttpMethod.HEAD, ctx))
             .options(BASE_PATH, ctx -> process(HttpMethod.OPTIONS, ctx))
             .patch(BASE_PATH, ctx -> process(HttpMethod.PATCH, ctx))
-            .start(config.getMockPort());
+            .start();
+    }
+
+    /**
+     * Javalin falls back to platform threads if virtual threads aren't available
+     */
+    private void configureThreads(JavalinConfig javalinConfig, Config config) {
+        boolean useVirtualThreads = config.isUseVirtualThreads();
+        if (useVirtualThreads && !ConcurrencyUtil.isLoomAvailable()) {
+            log.warn("Virtual threads aren't available, mock server uses platform threads");
+            useVirtualThreads = false;
+        }
+
+        threadPool = ConcurrencyUtil.jettyThreadPool(THREAD_POOL_NAME,
+            config.getMinThreads(),
+            config.getMaxThreads(),
+            useVirtualThreads);
+        javalinConfig.useVirtualThreads = useVirtualThreads;
+        javalinConfig.jetty.threadPool = threadPool;
+    }
+
+    /**
+     * Connectors of listener ports replace the default one of Javalin, so they serve protocols of config.
+     * All of them share thread pool and handlers of mock server
+     */
+    private void configureConnectors(JavalinConfig javalinConfig, Config config) {
+        for (int port : listeners.ports()) {
+            javalinConfig.jetty.addConnector((jetty, httpConfiguration) -> createConnector(jetty, httpConfiguration, config, port));
+        }
+        if (config.isTls()) {
+            javalinConfig.jetty.modifyHttpConfiguration(httpConfiguration ->
+                httpConfiguration.addCustomizer(new SecureRequestCustomizer(false)));
+        }
+        if (config.getMaxConnections() > 0) {
+            javalinConfig.jetty.modifyServer(jetty -> jetty.addBean(new ConnectionLimit(config.getMaxConnections(), jetty)));
+        }
+    }
+
+    /**
+     * Over TLS HTTP/2 is negotiated by ALPN and HTTP/1.1 stays the default for clients without it.
+     * Cleartext HTTP/1.1 connections are upgraded to h2c by the request header or by prior knowledge preface
+     */
+    private ServerConnector createConnector(Server jetty, HttpConfiguration httpConfiguration, Config config, int port) {
+        HttpConnectionFactory http11 = new HttpConnectionFactory(httpConfiguration);
+        ServerConnector connector;
+        if (config.isTls()) {
+            SslContextFactory.Server sslContextFactory = createSslContextFactory(config);
+            if (config.isHttp2()) {
+                HTTP2ServerConnectionFactory h2 = new HTTP2ServerConnectionFactory(httpConfiguration);
+                h2.setMaxConcurrentStreams(config.getHttp2MaxConcurrentStreams());
+                ALPNServerConnectionFactory alpn = new ALPNServerConnectionFactory();
+                alpn.setDefaultProtocol(http11.getProtocol());
+                sslContextFactory.setCipherComparator(HTTP2Cipher.COMPARATOR);
+                connector = new ServerConnector(jetty,
+                    new SslConnectionFactory(sslContextFactory, alpn.getProtocol()), alpn, h2, http11);
+            } else {
+                connector = new ServerConnector(jetty, new SslConnectionFactory(sslContextFactory, http11.getProtocol()), http11);
+            }
+        } else if (config.isHttp2()) {
+            HTTP2CServerConnectionFactory h2c = new HTTP2CServerConnectionFactory(httpConfiguration);
+            h2c.setMaxConcurrentStreams(config.getHttp2MaxConcurrentStreams());
+            connector = new ServerConnector(jetty, http11, h2c);
+        } else {
+            connector = new ServerConnector(jetty, http11);
+        }
+        connector.setPort(port);
+        return connector;
+    }
+
+    private SslContextFactory.Server createSslContextFactory(Config config) {
+        SslContextFactory.Server sslContextFactory = new SslContextFactory.Server();
+        if (config.getTlsKeyStorePath() != null) {
+            sslContextFactory.setKeyStorePath(config.getTlsKeyStorePath());
+            sslContextFactory.setKeyStorePassword(config.getTlsKeyStorePassword());
+        } else {
+            Path keyStore = SelfSignedKeyStore.getOrCreate(Path.of(System.getProperty(APP_DIR)));
+            sslContextFactory.setKeyStorePath(keyStore.toString());
+            sslContextFactory.setKeyStorePassword(SelfSignedKeyStore.PASSWORD);
+        }
+        return sslContextFactory;
     }
 
     private void process(HttpMethod method, Context context) {
         try {
             String path = "/" + context.pathParam(BASE_PATH_VARIABLE);
+            String host = context.req().getServerName();
+            String namespace = listeners.namespace(context.req().getLocalPort(), host);
+            if (namespace == null) {
+                context.status(HttpStatus.NOT_FOUND)
+                    .result("There is no listener for host: " + host);
+                return;
+            }
 
-            HttpHandler handler = registry.find(method, path);
-            if (handler == null) {
+            HttpHandlerMatch match = registry.match(namespace, method, path);
+            if (match == null && !configLoader.isReady()) {
+                context.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .result("Handlers are loading");
+                return;
+            }
+            if (match == null) {
                 context.status(HttpStatus.NOT_FOUND)
                     .result("There is no handlers with path: " + path);
                 return;
             }
 
-            Map<String, String> variables = new HashMap<>();
-            context.queryParamMap().forEach((key, values) -> {
-                String value = String.join(", ", values);
-                variables.put(key, value);
-            });
-
             HttpRequest request = HttpRequest.builder()
-                .body(context.body())
+                .source(new JavalinHttpRequestSource(context, match.getPathVariables()))
                 .build();
-            request.getVariables().putAll(variables);
-
-            HttpResponse response = handler.handle(request);
 
-            context.status(response.getCode());
-            if (response.getBody() == null) {
-                context.result();
+            CompletableFuture<HttpResponse> response = match.getHandler().handleAsync(request);
+            if (response.isDone() && response.join().getStream() == null) {
+                writeResponse(context, response.join());
             } else {
-                context.result(response.getBody());
+                //response is written on server threads, so scheduler threads completing delayed responses stay free
+                AtomicBoolean writing = new AtomicBoolean();
+                context.future(() -> response
+                    .thenComposeAsync(result -> {
+                        writing.set(true);
+                        return writeAsync(context, result);
+                    }, threadPool)
+                    .exceptionally(e -> {
+                        if (!writing.get()) {
+                            closeStream(response);
+                        }
+                        writeError(context);
+                        return null;
+                    }));
             }
         } catch (Exception e) {
-            context.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .result("Application error");
+            writeError(context);
+        }
+    }
+
+    private CompletableFuture<Void> writeAsync(Context context, HttpResponse response) {
+        if (response.getStream() != null) {
+            return writeStream(context, response);
+        }
+        writeResponse(context, response);
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private void writeResponse(Context context, HttpResponse response) {
+        writeHeaders(context, response);
+        if (response.getEncodedBody() != null) {
+            writeEncodedBody(context, response.getEncodedBody());
+            return;
+        }
+
+        if (response.getContentType() != null) {
+            context.contentType(response.getContentType());
+        }
+        if (response.getBody() == null) {
+            context.result();
+        } else {
+            context.result(response.getBody());
+        }
+    }
+
+    private void writeHeaders(Context context, HttpResponse response) {
+        context.status(response.getCode());
+        for (HttpHeader header : response.getHeaders()) {
+            context.res().addHeader(header.name(), header.value());
+        }
+    }
+
+    /**
+     * Headers are flushed right away, then every chunk is flushed as soon as it's ready.
+     * Chunks are written with non-blocking servlet output, so neither a stream waiting for its next chunk
+     * nor a slow client holds a thread. The stream ends when it's over, fails or the client disconnects
+     */
+    private CompletableFuture<Void> writeStream(Context context, HttpResponse response) {
+        HttpResponseStream stream = response.getStream();
+        StreamWriter writer;
+        try {
+            writeHeaders(context, response);
+            if (response.getContentType() != null) {
+                context.contentType(response.getContentType());
+            }
+
+            ServletOutputStream output = context.res().getOutputStream();
+            writer = new StreamWriter(output, stream);
+            output.setWriteListener(writer);
+        } catch (IOException e) {
+            stream.close();
+            return CompletableFuture.completedFuture(null);
+        } catch (RuntimeException e) {
+            stream.close();
+            throw e;
+        }
+        return writer.done;
+    }
+
+    /**
+     * Closes stream of response that failed before writing, for example if server threads rejected it
+     */
+    private void closeStream(CompletableFuture<HttpResponse> response) {
+        HttpResponse result = response.isDone() && !response.isCompletedExceptionally() ? response.join() : null;
+        if (result != null && result.getStream() != null) {
+            result.getStream().close();
+        }
+    }
+
+
+    /**
+     * Bytes go straight to Jetty output, bypassing result stream of Javalin, so they
+     * aren't encoded, compressed or copied to an intermediate buffer on every request
+     */
+    private void writeEncodedBody(Context context, EncodedBody body) {
+        HttpServletResponse servletResponse = context.res();
+        ContentEncoding encoding = body.negotiate(context.header(Header.ACCEPT_ENCODING));
+        if (body.isCompressed()) {
+            servletResponse.setHeader(Header.VARY, Header.ACCEPT_ENCODING);
+        }
+        if (encoding != ContentEncoding.IDENTITY) {
+            servletResponse.setHeader(Header.CONTENT_ENCODING, encoding.getToken());
+        }
+        servletResponse.setContentType(body.getContentType());
+        servletResponse.setContentLength(body.getContentLength(encoding));
+
+        try {
+            write(servletResponse.getOutputStream(), body.getContent(encoding));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void write(ServletOutputStream output, ByteBuffer content) throws IOException {
+        if (output instanceof HttpOutput httpOutput) {
+            httpOutput.write(content);
+        } else {
+            byte[] bytes = new byte[content.remaining()];
+            content.get(bytes);
+            output.write(bytes);
+        }
+    }
+
+    private void writeError(Context context) {
+        context.status(HttpStatus.INTERNAL_SERVER_ERROR)
+            .result("Application error");
+    }
+
+    private void awaitHandlers() {
+        try {
+            configLoader.awaitReady();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.error("Interrupted while waiting for handlers", e);
         }
     }
 
     @Override
     public void close() {
-        server.stop();
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    /**
+     * Writes chunks only while output is ready. Server calls {@link #onWritePossible()} when output
+     * becomes ready again, and a chunk that is ready later resumes writing on server threads
+     */
+    private class StreamWriter implements WriteListener {
+
+        private final ServletOutputStream output;
+        private final HttpResponseStream stream;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+        private final AtomicBoolean finished = new AtomicBoolean();
+        private ByteBuffer chunk;
+        private boolean flushNeeded = true;
+
+        private StreamWriter(ServletOutputStream output, HttpResponseStream stream) {
+            this.output = output;
+            this.stream = stream;
+        }
+
+        @Override
+        public void onWritePossible() {
+            try {
+                while (output.isReady()) {
+                    if (chunk != null) {
+                        write(output, chunk);
+                        chunk = null;
+                        flushNeeded = true;
+                    } else if (flushNeeded) {
+                        output.flush();
+                        flushNeeded = false;
+                    } else {
+                        writeNextChunk();
+                        return;
+                    }
+                }
+            } catch (IOException e) {
+                finish();
+            }
+        }
+
+        @Override
+        public void onError(Throwable t) {
+            finish();
+        }
+
+        private void writeNextChunk() {
+            stream.next().whenCompleteAsync((next, e) -> {
+                if (e != null) {
+                    log.warn("Response stream failed", e);
+                    finish();
+                } else if (next == null) {
+                    finish();
+                } else {
+                    chunk = next;
+                    onWritePossible();
+                }
+            }, threadPool);
+        }
+
+        private void finish() {
+            if (finished.compareAndSet(false, true)) {
+                try {
+                    stream.close();
+                } finally {
+                    done.complete(null);
+                }
+            }
+        }
+
     }
 
 }
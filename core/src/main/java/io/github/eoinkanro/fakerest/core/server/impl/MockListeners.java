@@ -0,0 +1,91 @@
+package io.github.eoinkanro.fakerest.core.server.impl;
+
+import io.github.eoinkanro.fakerest.core.conf.Config;
+import io.github.eoinkanro.fakerest.core.conf.MockListenerConfig;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Namespaces of mock server listeners by port and host. Mock port serves handlers without namespace
+ * for any host, unless a listener overrides it. A host of listener is checked before any host of its port
+ */
+final class MockListeners {
+
+    private static final String DEFAULT_NAMESPACE = "";
+
+    private final Map<Integer, PortListeners> listenersByPort;
+
+    /**
+     * @throws IllegalArgumentException if several listeners have the same port and host
+     */
+    MockListeners(Config config) {
+        Map<Integer, PortListeners> ports = new TreeMap<>();
+        ports.put(config.getMockPort(), new PortListeners(new HashMap<>(), DEFAULT_NAMESPACE, true));
+
+        if (config.getListeners() != null) {
+            for (MockListenerConfig listener : config.getListeners()) {
+                int port = listener.getPort() == null ? config.getMockPort() : listener.getPort();
+                String namespace = listener.getNamespace() == null ? DEFAULT_NAMESPACE : listener.getNamespace();
+                PortListeners portListeners = ports.computeIfAbsent(port, __ -> new PortListeners(new HashMap<>(), null, false));
+                ports.put(port, portListeners.with(port, listener, namespace));
+            }
+        }
+        this.listenersByPort = Collections.unmodifiableMap(ports);
+    }
+
+    /**
+     * @return ports of all listeners
+     */
+    Set<Integer> ports() {
+        return listenersByPort.keySet();
+    }
+
+    /**
+     * @param port local port of request
+     * @param host host of request without port
+     * @return namespace of handlers, empty for handlers without namespace, or null if no listener matches
+     */
+    String namespace(int port, String host) {
+        PortListeners portListeners = listenersByPort.get(port);
+        if (portListeners == null) {
+            return null;
+        }
+        if (host != null && !portListeners.namespaceByHost().isEmpty()) {
+            String namespace = portListeners.namespaceByHost().get(host.toLowerCase(Locale.ROOT));
+            if (namespace != null) {
+                return namespace;
+            }
+        }
+        return portListeners.anyHostNamespace();
+    }
+
+    /**
+     * @param anyHostNamespace namespace of hosts without own listener, null if they aren't served
+     * @param implicit true if only mock port serves any host of the port yet, so a listener can override it
+     */
+    private record PortListeners(Map<String, String> namespaceByHost, String anyHostNamespace, boolean implicit) {
+
+        private PortListeners with(int port, MockListenerConfig listener, String namespace) {
+            if (listener.getHosts() == null || listener.getHosts().isEmpty()) {
+                if (anyHostNamespace != null && !implicit) {
+                    throw new IllegalArgumentException("Several listeners serve any host of port " + port);
+                }
+                return new PortListeners(namespaceByHost, namespace, false);
+            }
+
+            for (String host : listener.getHosts()) {
+                if (namespaceByHost.putIfAbsent(host.toLowerCase(Locale.ROOT), namespace) != null) {
+                    throw new IllegalArgumentException("Several listeners serve host " + host + " of port " + port);
+                }
+            }
+            return this;
+        }
+
+    }
+
+}
@@ -0,0 +1,105 @@
+package io.github.eoinkanro.fakerest.core.server.impl;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Key store with a self-signed certificate for localhost. It's generated by keytool of the running
+ * Java once and reused on next starts, so clients have to trust the certificate only once
+ */
+@Slf4j
+final class SelfSignedKeyStore {
+
+    static final String FILE = "mock-keystore.p12";
+    static final String PASSWORD = "fake-rest";
+
+    private static final String ALIAS = "fake-rest";
+    private static final long TIMEOUT_SECONDS = 60;
+
+    private SelfSignedKeyStore() {
+    }
+
+    /**
+     * @param dir directory of key store
+     * @return path of existing or generated key store
+     * @throws UncheckedIOException if keytool can't be run
+     * @throws IllegalStateException if keytool fails
+     */
+    static Path getOrCreate(Path dir) {
+        return getOrCreate(dir, TIMEOUT_SECONDS);
+    }
+
+    /**
+     * @param timeoutSeconds max time of keytool, key store isn't kept if it's exceeded
+     */
+    static Path getOrCreate(Path dir, long timeoutSeconds) {
+        Path path = dir.resolve(FILE);
+        if (Files.exists(path)) {
+            return path;
+        }
+
+        Path keytool = Path.of(System.getProperty("java.home"), "bin", "keytool");
+        ProcessBuilder builder = new ProcessBuilder(keytool.toString(),
+            "-genkeypair",
+            "-alias", ALIAS,
+            "-keyalg", "EC",
+            "-groupname", "secp256r1",
+            "-validity", "3650",
+            "-dname", "CN=localhost",
+            "-ext", "SAN=dns:localhost,ip:127.0.0.1,ip:0:0:0:0:0:0:0:1",
+            "-storetype", "PKCS12",
+            "-keystore", path.toString(),
+            "-storepass", PASSWORD)
+            .redirectErrorStream(true);
+
+        //output goes to a file, so reading it doesn't block until keytool exits and the timeout works
+        Path output = null;
+        Process process = null;
+        boolean created = false;
+        try {
+            output = Files.createTempFile(dir, "keytool", ".log");
+            process = builder.redirectOutput(output.toFile()).start();
+            if (!process.waitFor(timeoutSeconds, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Keytool didn't generate key store in time");
+            }
+            if (process.exitValue() != 0) {
+                throw new IllegalStateException("Keytool can't generate key store: " + Files.readString(output, StandardCharsets.UTF_8).trim());
+            }
+            created = true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't run keytool, set tlsKeyStorePath", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while generating key store", e);
+        } finally {
+            if (process != null && process.isAlive()) {
+                process.destroyForcibly();
+            }
+            deleteQuietly(output);
+            if (!created) {
+                deleteQuietly(path);
+            }
+        }
+
+        log.info("Generated self-signed key store {}", path);
+        return path;
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Can't delete {}", path, e);
+        }
+    }
+
+}
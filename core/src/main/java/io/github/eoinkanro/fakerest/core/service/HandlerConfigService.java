@@ -4,6 +4,7 @@ import io.github.eoinkanro.fakerest.core.conf.*;
 import io.github.eoinkanro.fakerest.core.handler.HttpHandler;
 import io.github.eoinkanro.fakerest.core.handler.HttpHandlerFactory;
 import io.github.eoinkanro.fakerest.core.handler.HttpHandlerRegistry;
+import io.github.eoinkanro.fakerest.core.handler.HttpHandlerRegistryBatch;
 import io.github.eoinkanro.fakerest.core.handler.RegisterException;
 import jakarta.inject.Singleton;
 import lombok.RequiredArgsConstructor;
@@ -46,7 +47,7 @@ public class HandlerConfigService {
             }
 
             AbstractHttpHandlerConfig handlerConfig = handler.getConfig();
-            handlerRegistry.unregister(handlerConfig.getMethod(), handlerConfig.getPath());
+            handlerRegistry.unregister(handlerConfig.getId());
 
             Config config = configLoader.loadOrGetCached();
             config.setHandlers(config.getHandlers().stream()
@@ -69,14 +70,15 @@ public class HandlerConfigService {
 
             HttpHandler newHandler = handlerFactory.create(newHandlerConfig);
             AbstractHttpHandlerConfig oldConfigHandler = oldHandler.getConfig();
-            handlerRegistry.unregister(oldConfigHandler.getMethod(), oldConfigHandler.getPath());
-
-            if (handlerRegistry.find(newHandlerConfig.getMethod(), newHandlerConfig.getPath()) != null) {
-                handlerRegistry.register(oldHandler);
+            try {
+                handlerRegistry.apply(new HttpHandlerRegistryBatch()
+                    .unregister(oldConfigHandler.getId())
+                    .register(newHandler));
+            } catch (RegisterException e) {
+                //batch isn't applied, so the old handler stays registered
                 return false;
             }
 
-            handlerRegistry.register(newHandler);
             Config config = configLoader.loadOrGetCached();
             config.setHandlers(config.getHandlers().stream()
                 .filter(h -> !h.getId().equals(oldConfigHandler.getId()))
@@ -1,8 +1,11 @@
 package io.github.eoinkanro.fakerest.core.conf;
 
+import io.github.eoinkanro.fakerest.core.conf.impl.FileHttpHandlerConfig;
+import io.github.eoinkanro.fakerest.core.conf.impl.GeneratorHttpHandlerConfig;
 import io.github.eoinkanro.fakerest.core.conf.impl.GroovyHttpHandlerConfig;
 import io.github.eoinkanro.fakerest.core.conf.impl.RouterHttpHandlerConfig;
 import io.github.eoinkanro.fakerest.core.conf.impl.StaticHttpHandlerConfig;
+import io.github.eoinkanro.fakerest.core.conf.impl.StreamHttpHandlerConfig;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
@@ -48,10 +51,22 @@ class HttpHandlerConfigDeserializerTest {
         ObjectNode routerHandler = mapper.createObjectNode();
         routerHandler.put(TYPE, HttpHandlerType.ROUTER.toString());
 
+        ObjectNode fileHandler = mapper.createObjectNode();
+        fileHandler.put(TYPE, HttpHandlerType.FILE.toString());
+
+        ObjectNode streamHandler = mapper.createObjectNode();
+        streamHandler.put(TYPE, HttpHandlerType.STREAM.toString());
+
+        ObjectNode generatorHandler = mapper.createObjectNode();
+        generatorHandler.put(TYPE, HttpHandlerType.GENERATOR.toString());
+
         return new Object[][] {
             new Object[] { staticHandler, StaticHttpHandlerConfig.class },
             new Object[] { groovyHandler, GroovyHttpHandlerConfig.class },
-            new Object[] { routerHandler, RouterHttpHandlerConfig.class }
+            new Object[] { routerHandler, RouterHttpHandlerConfig.class },
+            new Object[] { fileHandler, FileHttpHandlerConfig.class },
+            new Object[] { streamHandler, StreamHttpHandlerConfig.class },
+            new Object[] { generatorHandler, GeneratorHttpHandlerConfig.class }
         };
     }
 
@@ -1,8 +1,12 @@
 package io.github.eoinkanro.fakerest.core.conf.impl;
 
+import io.github.eoinkanro.fakerest.core.conf.AbstractHttpHandlerConfig;
 import io.github.eoinkanro.fakerest.core.conf.Config;
+import io.github.eoinkanro.fakerest.core.conf.HttpHandlerType;
+import io.github.eoinkanro.fakerest.core.handler.HttpHandler;
 import io.github.eoinkanro.fakerest.core.handler.HttpHandlerFactory;
 import io.github.eoinkanro.fakerest.core.handler.HttpHandlerRegistry;
+import io.github.eoinkanro.fakerest.core.handler.RegisterException;
 import io.github.eoinkanro.fakerest.core.model.HttpMethod;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.Test;
@@ -13,14 +17,21 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.List;
+import java.util.function.BiConsumer;
 
 import static io.github.eoinkanro.fakerest.core.conf.impl.FileConfigLoader.*;
 import static java.nio.file.StandardOpenOption.CREATE;
 import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
 class FileConfigLoaderTest {
@@ -44,6 +55,8 @@ class FileConfigLoaderTest {
     private HttpHandlerRegistry handlerRegistry;
     @Mock
     private HttpHandlerFactory handlerFactory;
+    @Mock
+    private HttpHandler handler;
 
     private FileConfigLoader subject;
 
@@ -76,7 +89,51 @@ class FileConfigLoaderTest {
 
         subject.init();
         verify(handlerFactory, times(4)).create(any());
-        verify(handlerRegistry, times(4)).register(any());
+        verify(handlerRegistry).applyValid(argThat(batch -> batch.getRegistrations().size() == 4), any());
+        verify(handlerRegistry, never()).register(any());
+        assertTrue(subject.isReady());
+    }
+
+    @Test
+    @SneakyThrows
+    void testInitSkipsHandlerRejectedByRegistry() {
+        init();
+        createTempConfig(configPath, CONFIG1);
+        createTempConfig(importConfigPath, CONFIG2);
+
+        when(handlerFactory.create(any())).thenReturn(handler);
+        when(handler.getConfig()).thenReturn(mock(AbstractHttpHandlerConfig.class));
+        doAnswer(invocation -> {
+            BiConsumer<HttpHandler, RegisterException> rejected = invocation.getArgument(1);
+            rejected.accept(handler, new RegisterException("Rejected"));
+            return null;
+        }).when(handlerRegistry).applyValid(any(), any());
+
+        subject.init();
+        verify(handlerRegistry).applyValid(argThat(batch -> batch.getRegistrations().size() == 4), any());
+        verify(handlerRegistry, never()).apply(any());
+        verify(handlerRegistry, never()).register(any());
+        assertTrue(subject.isReady());
+    }
+
+    @Test
+    @SneakyThrows
+    void testInitSkipsHandlerThatCantBeCreated() {
+        init();
+        createTempConfig(configPath, CONFIG1);
+
+        when(handlerFactory.create(any())).thenAnswer(invocation -> {
+            AbstractHttpHandlerConfig conf = invocation.getArgument(0);
+            if (conf.getType() == HttpHandlerType.GROOVY) {
+                throw new IllegalStateException();
+            }
+            return handler;
+        });
+
+        subject.init();
+        verify(handlerFactory, times(3)).create(any());
+        verify(handlerRegistry).applyValid(argThat(batch -> batch.getRegistrations().equals(List.of(handler, handler))), any());
+        assertTrue(subject.isReady());
     }
 
     @Test
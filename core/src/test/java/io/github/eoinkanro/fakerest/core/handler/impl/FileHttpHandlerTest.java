@@ -0,0 +1,172 @@
+package io.github.eoinkanro.fakerest.core.handler.impl;
+
+import io.github.eoinkanro.fakerest.core.conf.impl.FileHttpHandlerConfig;
+import io.github.eoinkanro.fakerest.core.model.HttpHeader;
+import io.github.eoinkanro.fakerest.core.model.HttpRequest;
+import io.github.eoinkanro.fakerest.core.model.HttpResponse;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class FileHttpHandlerTest {
+
+    private static final String CONTENT = "0123456789";
+    private static final String ETAG = "\"a-5f5e100\"";
+    private static final String LAST_MODIFIED = "Sat, 3 Mar 1973 09:46:40 GMT";
+
+    @TempDir
+    private Path directory;
+
+    private Path file;
+    private FileHttpHandler subject;
+
+    @BeforeEach
+    @SneakyThrows
+    void init() {
+        file = directory.resolve("file.json");
+        Files.writeString(file, CONTENT);
+        Files.setLastModifiedTime(file, FileTime.from(Instant.ofEpochSecond(100_000_000)));
+        subject = new FileHttpHandler(FileHttpHandlerConfig.builder().filePath(file.toString()).build());
+    }
+
+    @Test
+    void testHandle() {
+        HttpResponse response = subject.handle(HttpRequest.builder().build());
+
+        assertEquals(200, response.getCode());
+        assertEquals(CONTENT, content(response));
+        assertEquals("application/json", response.getEncodedBody().getContentType());
+        assertEquals("bytes", header(response, "Accept-Ranges"));
+        assertEquals(ETAG, header(response, "ETag"));
+        assertEquals(LAST_MODIFIED, header(response, "Last-Modified"));
+    }
+
+    @Test
+    void testContentType() {
+        subject = new FileHttpHandler(FileHttpHandlerConfig.builder()
+            .filePath(file.toString())
+            .contentType("text/plain")
+            .build());
+
+        assertEquals("text/plain", subject.handle(HttpRequest.builder().build()).getEncodedBody().getContentType());
+    }
+
+    @Test
+    void testMissingFile() {
+        FileHttpHandlerConfig config = FileHttpHandlerConfig.builder()
+            .filePath(directory.resolve("missing").toString())
+            .build();
+
+        assertThrows(UncheckedIOException.class, () -> new FileHttpHandler(config));
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+        "bytes=0-3|0123|bytes 0-3/10",
+        "bytes=5-|56789|bytes 5-9/10",
+        "bytes=-3|789|bytes 7-9/10",
+        "bytes=8-100|89|bytes 8-9/10",
+        "bytes=-100|0123456789|bytes 0-9/10"
+    })
+    void testRange(String range, String expectedContent, String expectedContentRange) {
+        HttpResponse response = subject.handle(request("Range", range));
+
+        assertEquals(206, response.getCode());
+        assertEquals(expectedContent, content(response));
+        assertEquals(expectedContentRange, header(response, "Content-Range"));
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+        "bytes=3-1",
+        "bytes=0-1,3-4",
+        "items=0-1",
+        "bytes=a-b"
+    })
+    void testInvalidRange(String range) {
+        HttpResponse response = subject.handle(request("Range", range));
+
+        assertEquals(200, response.getCode());
+        assertEquals(CONTENT, content(response));
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+        "bytes=10-",
+        "bytes=-0"
+    })
+    void testNotSatisfiableRange(String range) {
+        HttpResponse response = subject.handle(request("Range", range));
+
+        assertEquals(416, response.getCode());
+        assertEquals("bytes */10", header(response, "Content-Range"));
+        assertNull(response.getEncodedBody());
+    }
+
+    @Test
+    void testIfRange() {
+        HttpRequest request = request("Range", "bytes=0-3");
+        request.getHeaders().put("If-Range", ETAG);
+        assertEquals(206, subject.handle(request).getCode());
+
+        request.getHeaders().put("If-Range", LAST_MODIFIED);
+        assertEquals(206, subject.handle(request).getCode());
+
+        request.getHeaders().put("If-Range", "\"other\"");
+        assertEquals(200, subject.handle(request).getCode());
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', value = {
+        "If-None-Match|" + ETAG + "|304",
+        "If-None-Match|\"other\", W/" + ETAG + "|304",
+        "If-None-Match|*|304",
+        "If-None-Match|\"other\"|200",
+        "If-Modified-Since|" + LAST_MODIFIED + "|304",
+        "If-Modified-Since|Sat, 3 Mar 1973 09:46:39 GMT|200",
+        "If-Modified-Since|invalid|200"
+    })
+    void testConditional(String header, String value, int expectedCode) {
+        HttpResponse response = subject.handle(request(header, value));
+
+        assertEquals(expectedCode, response.getCode());
+        assertEquals(ETAG, header(response, "ETag"));
+    }
+
+    private HttpRequest request(String header, String value) {
+        HttpRequest request = HttpRequest.builder().build();
+        request.getHeaders().put(header, value);
+        return request;
+    }
+
+    private String header(HttpResponse response, String name) {
+        return response.getHeaders().stream()
+            .filter(header -> header.name().equalsIgnoreCase(name))
+            .map(HttpHeader::value)
+            .findFirst()
+            .orElse(null);
+    }
+
+    private String content(HttpResponse response) {
+        ByteBuffer content = response.getEncodedBody().getContent();
+        byte[] bytes = new byte[content.remaining()];
+        content.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+}
@@ -0,0 +1,174 @@
+package io.github.eoinkanro.fakerest.core.handler.impl;
+
+import io.github.eoinkanro.fakerest.core.conf.HttpHandlerBodyType;
+import io.github.eoinkanro.fakerest.core.conf.impl.GeneratorHttpHandlerConfig;
+import io.github.eoinkanro.fakerest.core.handler.HttpHandlerScheduler;
+import io.github.eoinkanro.fakerest.core.model.HttpHeader;
+import io.github.eoinkanro.fakerest.core.model.HttpResponse;
+import io.github.eoinkanro.fakerest.core.model.HttpResponseStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class GeneratorHttpHandlerTest {
+
+    @Mock
+    private HttpHandlerScheduler scheduler;
+
+    @Test
+    void testHandlePattern() {
+        GeneratorHttpHandler subject = new GeneratorHttpHandler(GeneratorHttpHandlerConfig.builder()
+            .pattern("abc")
+            .sizeBytes(200_000)
+            .build(), scheduler);
+
+        HttpResponse response = subject.handle(null);
+        String body = new String(readAll(response.getStream()), StandardCharsets.UTF_8);
+
+        assertEquals(200, response.getCode());
+        assertEquals("text/plain; charset=utf-8", response.getContentType());
+        assertEquals(List.of(new HttpHeader("Content-Length", "200000")), response.getHeaders());
+        assertEquals("abc".repeat(66_667).substring(0, 200_000), body);
+    }
+
+    @Test
+    void testHandleRandom() {
+        GeneratorHttpHandlerConfig config = GeneratorHttpHandlerConfig.builder()
+            .bodyType(HttpHandlerBodyType.RANDOM)
+            .seed(42)
+            .sizeBytes(1_000_000)
+            .build();
+        GeneratorHttpHandler subject = new GeneratorHttpHandler(config, scheduler);
+
+        HttpResponse response = subject.handle(null);
+        byte[] body = readAll(response.getStream());
+
+        assertEquals("application/octet-stream", response.getContentType());
+        assertEquals(1_000_000, body.length);
+        assertArrayEquals(body, readAll(new GeneratorHttpHandler(config, scheduler).handle(null).getStream()));
+        assertFalse(new String(body, StandardCharsets.ISO_8859_1).chars().allMatch(c -> c == body[0]));
+    }
+
+    @Test
+    void testHandleJsonArray() {
+        GeneratorHttpHandler subject = new GeneratorHttpHandler(GeneratorHttpHandlerConfig.builder()
+            .bodyType(HttpHandlerBodyType.JSON_ARRAY)
+            .elementTemplate("{\"id\": {{index}}, \"name\": \"user-{{index}}\"}")
+            .elements(10_000)
+            .build(), scheduler);
+
+        HttpResponse response = subject.handle(null);
+        JsonNode body = JsonMapper.builder().build().readTree(readAll(response.getStream()));
+
+        assertEquals("application/json", response.getContentType());
+        assertTrue(response.getHeaders().isEmpty());
+        assertEquals(10_000, body.size());
+        assertEquals(9_999, body.get(9_999).get("id").asInt());
+        assertEquals("user-9999", body.get(9_999).get("name").asString());
+    }
+
+    @Test
+    void testHandleJsonArrayReusesBuffer() {
+        GeneratorHttpHandler subject = new GeneratorHttpHandler(GeneratorHttpHandlerConfig.builder()
+            .bodyType(HttpHandlerBodyType.JSON_ARRAY)
+            .elementTemplate("{\"id\": {{index}}}")
+            .elements(100_000)
+            .build(), scheduler);
+
+        HttpResponseStream stream = subject.handle(null).getStream();
+        ByteBuffer first = stream.next().join();
+        first.position(first.limit());
+
+        assertSame(first, stream.next().join());
+    }
+
+    @Test
+    void testHandleJsonArrayOfBigElements() {
+        String name = "x".repeat(100_000);
+        GeneratorHttpHandler subject = new GeneratorHttpHandler(GeneratorHttpHandlerConfig.builder()
+            .bodyType(HttpHandlerBodyType.JSON_ARRAY)
+            .elementTemplate("{\"id\": {{index}}, \"name\": \"" + name + "\"}")
+            .elements(3)
+            .build(), scheduler);
+
+        JsonNode body = JsonMapper.builder().build().readTree(readAll(subject.handle(null).getStream()));
+
+        assertEquals(3, body.size());
+        assertEquals(2, body.get(2).get("id").asInt());
+        assertEquals(name, body.get(2).get("name").asString());
+    }
+
+    @Test
+    void testHandleEmptyJsonArray() {
+        GeneratorHttpHandler subject = new GeneratorHttpHandler(GeneratorHttpHandlerConfig.builder()
+            .bodyType(HttpHandlerBodyType.JSON_ARRAY)
+            .elementTemplate("{}")
+            .build(), scheduler);
+
+        assertEquals("[]", new String(readAll(subject.handle(null).getStream()), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testHandleThrottled() {
+        when(scheduler.delayNanos(anyLong(), any())).thenAnswer(invocation ->
+            CompletableFuture.completedFuture(invocation.<Supplier<?>>getArgument(1).get()));
+        GeneratorHttpHandler subject = new GeneratorHttpHandler(GeneratorHttpHandlerConfig.builder()
+            .sizeBytes(10_000)
+            .bytesPerSecond(20_000)
+            .build(), scheduler);
+
+        HttpResponseStream stream = subject.handle(null).getStream();
+        ByteBuffer first = stream.next().join();
+
+        //bandwidth is spread over 20 chunks per second
+        assertEquals(1_000, first.remaining());
+        assertEquals(9_000, readAll(stream).length);
+        verify(scheduler, atLeastOnce()).delayNanos(anyLong(), any());
+    }
+
+    @Test
+    void testCreateInvalid() {
+        GeneratorHttpHandlerConfig emptyPattern = GeneratorHttpHandlerConfig.builder().pattern("").build();
+        GeneratorHttpHandlerConfig noTemplate = GeneratorHttpHandlerConfig.builder().bodyType(HttpHandlerBodyType.JSON_ARRAY).build();
+        GeneratorHttpHandlerConfig negativeSize = GeneratorHttpHandlerConfig.builder().sizeBytes(-1).build();
+
+        assertThrows(IllegalArgumentException.class, () -> new GeneratorHttpHandler(emptyPattern, scheduler));
+        assertThrows(IllegalArgumentException.class, () -> new GeneratorHttpHandler(noTemplate, scheduler));
+        assertThrows(IllegalArgumentException.class, () -> new GeneratorHttpHandler(negativeSize, scheduler));
+    }
+
+    private byte[] readAll(HttpResponseStream stream) {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        ByteBuffer chunk;
+        while ((chunk = stream.next().join()) != null) {
+            byte[] bytes = new byte[chunk.remaining()];
+            chunk.get(bytes);
+            body.writeBytes(bytes);
+        }
+        return body.toByteArray();
+    }
+
+}
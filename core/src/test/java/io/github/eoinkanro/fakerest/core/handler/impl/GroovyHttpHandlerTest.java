@@ -2,16 +2,37 @@ package io.github.eoinkanro.fakerest.core.handler.impl;
 
 import io.github.eoinkanro.fakerest.core.conf.impl.GroovyHttpHandlerConfig;
 import io.github.eoinkanro.fakerest.core.handler.HttpHandlerDataRepository;
+import io.github.eoinkanro.fakerest.core.model.HttpHeader;
 import io.github.eoinkanro.fakerest.core.model.HttpRequest;
 import io.github.eoinkanro.fakerest.core.model.HttpResponse;
+import io.github.eoinkanro.fakerest.core.model.HttpResponseStream;
+import lombok.SneakyThrows;
+import org.codehaus.groovy.control.CompilationFailedException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -25,6 +46,10 @@ class GroovyHttpHandlerTest {
     @Mock
     private HttpRequest request;
 
+    private final GroovyScriptCacheImpl scriptCache = new GroovyScriptCacheImpl();
+    private final GroovyScriptWatchdog watchdog = new GroovyScriptWatchdog();
+    private final HttpHandlerSchedulerImpl scheduler = new HttpHandlerSchedulerImpl();
+
     @Test
     void testHandle() {
         String groovyCode = """
@@ -37,7 +62,50 @@ class GroovyHttpHandlerTest {
 
         when(config.getGroovyCode()).thenReturn(groovyCode);
 
-        GroovyHttpHandler subject = new GroovyHttpHandler(config, dataRepository);
+        GroovyHttpHandler subject = new GroovyHttpHandler(config, dataRepository, scheduler, scriptCache, watchdog);
+        HttpResponse response = subject.handle(request);
+
+        assertEquals(200, response.getCode());
+        verify(dataRepository).put(eq("value"), any());
+        verify(request).getBody();
+    }
+
+    @Test
+    void testHandleHeaders() {
+        String groovyCode = """
+            return HttpResponse.builder()
+                .code(200)
+                .contentType("application/json")
+                .header(new HttpHeader("Set-Cookie", "a=1"))
+                .header(new HttpHeader("Set-Cookie", "b=2"))
+                .body("{}")
+                .build();
+            """;
+
+        when(config.getGroovyCode()).thenReturn(groovyCode);
+        when(config.isCompileStatic()).thenReturn(true);
+
+        GroovyHttpHandler subject = new GroovyHttpHandler(config, dataRepository, scheduler, scriptCache, watchdog);
+        HttpResponse response = subject.handle(request);
+
+        assertEquals("application/json", response.getContentType());
+        assertEquals(List.of(new HttpHeader("Set-Cookie", "a=1"), new HttpHeader("Set-Cookie", "b=2")), response.getHeaders());
+    }
+
+    @Test
+    void testHandleCompileStatic() {
+        String groovyCode = """
+            ObjectNode json = jsonMapper.readValue("{\\"key\\":\\"value\\"}", ObjectNode.class);
+            String value = json.get("key").asString();
+            dataRepository.put(value, json);
+            request.getBody();
+            return HttpResponse.builder().code(200).build();
+            """;
+
+        when(config.getGroovyCode()).thenReturn(groovyCode);
+        when(config.isCompileStatic()).thenReturn(true);
+
+        GroovyHttpHandler subject = new GroovyHttpHandler(config, dataRepository, scheduler, scriptCache, watchdog);
         HttpResponse response = subject.handle(request);
 
         assertEquals(200, response.getCode());
@@ -45,4 +113,130 @@ class GroovyHttpHandlerTest {
         verify(request).getBody();
     }
 
+    @Test
+    @SneakyThrows
+    void testHandleAsyncDelay() {
+        when(config.getGroovyCode()).thenReturn("return delay(100) { HttpResponse.builder().code(201).build() }");
+
+        GroovyHttpHandler subject = new GroovyHttpHandler(config, dataRepository, scheduler, scriptCache, watchdog);
+        CompletableFuture<HttpResponse> response = subject.handleAsync(request);
+
+        assertFalse(response.isDone());
+        assertEquals(201, response.get(5, TimeUnit.SECONDS).getCode());
+    }
+
+    @Test
+    @SneakyThrows
+    void testHandleStream() {
+        when(config.getGroovyCode()).thenReturn("return HttpResponse.builder().code(200).stream(stream(10) { i -> i < 2 ? \"chunk $i\" : null }).build()");
+
+        GroovyHttpHandler subject = new GroovyHttpHandler(config, dataRepository, scheduler, scriptCache, watchdog);
+        HttpResponseStream stream = subject.handle(request).getStream();
+
+        assertEquals(StandardCharsets.UTF_8.encode("chunk 0"), stream.next().get(5, TimeUnit.SECONDS));
+        assertEquals(StandardCharsets.UTF_8.encode("chunk 1"), stream.next().get(5, TimeUnit.SECONDS));
+        assertNull(stream.next().get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testHandleTimeout() {
+        when(config.getGroovyCode()).thenReturn("while (true) { }");
+        when(config.getTimeoutMillis()).thenReturn(100L);
+        when(config.getAbortResponseCode()).thenReturn(504);
+
+        GroovyHttpHandler subject = new GroovyHttpHandler(config, dataRepository, scheduler, scriptCache, watchdog);
+        HttpResponse response = subject.handle(request);
+
+        assertEquals(504, response.getCode());
+        assertEquals(1, watchdog.getAbortedExecutions());
+        assertFalse(Thread.currentThread().isInterrupted());
+    }
+
+    @Test
+    void testHandleAllocationLimit() {
+        String groovyCode = """
+            List<byte[]> data = new ArrayList<>();
+            while (true) { data.add(new byte[1024 * 1024]); if (data.size() > 64) data.clear(); }
+            """;
+
+        when(config.getGroovyCode()).thenReturn(groovyCode);
+        when(config.getMaxAllocatedBytes()).thenReturn(16L * 1024 * 1024);
+
+        GroovyHttpHandler subject = new GroovyHttpHandler(config, dataRepository, scheduler, scriptCache, watchdog);
+        HttpResponse response = subject.handle(request);
+
+        assertEquals(503, response.getCode());
+        assertEquals(1, watchdog.getAbortedExecutions());
+        assertFalse(Thread.currentThread().isInterrupted());
+    }
+
+    @Test
+    void testHandleAllocationLimitNotMeasured() {
+        //virtual threads and JVMs without allocation measurement report -1
+        com.sun.management.ThreadMXBean threadMXBean = mock(com.sun.management.ThreadMXBean.class);
+        when(threadMXBean.getThreadAllocatedBytes(anyLong())).thenReturn(-1L);
+        GroovyScriptWatchdog unmeasuredWatchdog = new GroovyScriptWatchdog(threadMXBean);
+
+        when(config.getGroovyCode()).thenReturn("while (true) { }");
+        when(config.getMaxAllocatedBytes()).thenReturn(1L);
+        when(config.getTimeoutMillis()).thenReturn(100L);
+
+        GroovyHttpHandler subject = new GroovyHttpHandler(config, dataRepository, scheduler, scriptCache, unmeasuredWatchdog);
+
+        //wall time is still limited
+        assertEquals(503, subject.handle(request).getCode());
+        assertEquals(503, subject.handle(request).getCode());
+        assertEquals(2, unmeasuredWatchdog.getAbortedExecutions());
+        verify(threadMXBean, times(2)).getThreadAllocatedBytes(anyLong());
+    }
+
+    @Test
+    void testHandleInLimits() {
+        when(config.getGroovyCode()).thenReturn("return HttpResponse.builder().code(200).build();");
+        when(config.getTimeoutMillis()).thenReturn(10_000L);
+
+        GroovyHttpHandler subject = new GroovyHttpHandler(config, dataRepository, scheduler, scriptCache, watchdog);
+
+        assertEquals(200, subject.handle(request).getCode());
+        assertEquals(0, watchdog.getAbortedExecutions());
+    }
+
+    @Test
+    void testCompileErrorOnCreate() {
+        when(config.getGroovyCode()).thenReturn("return HttpResponse.builder(");
+
+        assertThrows(CompilationFailedException.class, () -> new GroovyHttpHandler(config, dataRepository, scheduler, scriptCache, watchdog));
+    }
+
+    @Test
+    @SneakyThrows
+    void testHandleConcurrently() {
+        String groovyCode = """
+            String body = request.getBody();
+            Thread.sleep(1);
+            return HttpResponse.builder().code(200).body(body + request.getBody()).build();
+            """;
+
+        when(config.getGroovyCode()).thenReturn(groovyCode);
+        GroovyHttpHandler subject = new GroovyHttpHandler(config, dataRepository, scheduler, scriptCache, watchdog);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                String body = UUID.randomUUID().toString();
+                results.add(executor.submit(() -> {
+                    HttpResponse response = subject.handle(HttpRequest.builder().body(body).build());
+                    return (body + body).equals(response.getBody());
+                }));
+            }
+
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
 }
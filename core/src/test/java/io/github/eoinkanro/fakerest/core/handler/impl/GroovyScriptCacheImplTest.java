@@ -0,0 +1,75 @@
+package io.github.eoinkanro.fakerest.core.handler.impl;
+
+import groovy.lang.Script;
+import org.codehaus.groovy.control.CompilationFailedException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GroovyScriptCacheImplTest {
+
+    @Test
+    void testCompileSameScriptOnce() {
+        GroovyScriptCacheImpl subject = new GroovyScriptCacheImpl();
+
+        Class<?> scriptClass = subject.compile("return 1", false, false);
+        assertSame(scriptClass, subject.compile("return 1", false, false));
+        assertNotSame(scriptClass, subject.compile("return 2", false, false));
+        assertEquals(2, subject.size());
+    }
+
+    @Test
+    void testEvictLeastRecentlyUsed() {
+        GroovyScriptCacheImpl subject = new GroovyScriptCacheImpl(2);
+
+        Class<?> first = subject.compile("return 1", false, false);
+        Class<?> second = subject.compile("return 2", false, false);
+        subject.compile("return 1", false, false);
+        subject.compile("return 3", false, false);
+
+        assertEquals(2, subject.size());
+        assertSame(first, subject.compile("return 1", false, false));
+        assertNotSame(second, subject.compile("return 2", false, false));
+    }
+
+    @Test
+    void testCompileErrorIsNotCached() {
+        GroovyScriptCacheImpl subject = new GroovyScriptCacheImpl();
+
+        assertThrows(CompilationFailedException.class, () -> subject.compile("return (", false, false));
+        assertThrows(CompilationFailedException.class, () -> subject.compile("return (", false, false));
+        assertEquals(0, subject.size());
+    }
+
+    @Test
+    void testCompileStatic() {
+        GroovyScriptCacheImpl subject = new GroovyScriptCacheImpl();
+
+        Class<?> dynamicClass = subject.compile("return request.getBody()", false, false);
+        Class<?> staticClass = subject.compile("return request.getBody()", true, false);
+
+        assertNotSame(dynamicClass, staticClass);
+        assertTrue(GroovyHttpHandlerScript.class.isAssignableFrom(staticClass));
+        assertThrows(CompilationFailedException.class, () -> subject.compile("return request.getUnknown()", true, false));
+    }
+
+    @Test
+    void testCompileInterruptible() throws Exception {
+        GroovyScriptCacheImpl subject = new GroovyScriptCacheImpl();
+        String script = "int sum = 0; for (int i = 0; i < 3; i++) { sum++ }; return sum";
+
+        Class<? extends Script> plainClass = subject.compile(script, true, false);
+        Class<? extends Script> interruptibleClass = subject.compile(script, true, true);
+        assertNotSame(plainClass, interruptibleClass);
+        assertSame(interruptibleClass, subject.compile(script, true, true));
+
+        Thread.currentThread().interrupt();
+        try {
+            assertEquals(3, plainClass.getDeclaredConstructor().newInstance().run());
+            assertThrows(InterruptedException.class, () -> interruptibleClass.getDeclaredConstructor().newInstance().run());
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+}
@@ -1,20 +1,47 @@
 package io.github.eoinkanro.fakerest.core.handler.impl;
 
 import io.github.eoinkanro.fakerest.core.conf.AbstractHttpHandlerConfig;
+import io.github.eoinkanro.fakerest.core.conf.HttpHandlerLatencyConfig;
+import io.github.eoinkanro.fakerest.core.conf.HttpHandlerLatencyType;
+import io.github.eoinkanro.fakerest.core.conf.HttpHandlerThrottleConfig;
+import io.github.eoinkanro.fakerest.core.conf.impl.GeneratorHttpHandlerConfig;
 import io.github.eoinkanro.fakerest.core.conf.impl.GroovyHttpHandlerConfig;
 import io.github.eoinkanro.fakerest.core.conf.impl.RouterHttpHandlerConfig;
 import io.github.eoinkanro.fakerest.core.conf.impl.StaticHttpHandlerConfig;
+import io.github.eoinkanro.fakerest.core.conf.impl.StreamHttpHandlerConfig;
+import io.github.eoinkanro.fakerest.core.handler.GroovyScriptCache;
+import io.github.eoinkanro.fakerest.core.handler.HttpHandler;
+import io.github.eoinkanro.fakerest.core.handler.HttpHandlerScheduler;
+import io.github.eoinkanro.fakerest.core.model.HttpHeader;
+import io.github.eoinkanro.fakerest.core.model.HttpResponse;
+import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 import org.mockito.InjectMocks;
+import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @ExtendWith(MockitoExtension.class)
 class HttpHandlerFactoryImplTest {
 
+    @Mock
+    private HttpHandlerScheduler scheduler;
+    @Mock
+    private GroovyScriptCache scriptCache;
+    @Mock
+    private GroovyScriptWatchdog scriptWatchdog;
+
     @InjectMocks
     private HttpHandlerFactoryImpl subject;
 
@@ -24,6 +51,80 @@ class HttpHandlerFactoryImplTest {
         assertTrue(subject.create(config).getClass().isAssignableFrom(handlerClass));
     }
 
+    @Test
+    void testCreateStaticEncodesBody() {
+        StaticHttpHandlerConfig config = StaticHttpHandlerConfig.builder()
+            .responseCode(200)
+            .responseBody("\u0442\u0435\u043b\u043e")
+            .build();
+
+        HttpResponse response = subject.create(config).handle(null);
+
+        assertEquals("\u0442\u0435\u043b\u043e", response.getBody());
+        assertEquals("\u0442\u0435\u043b\u043e".getBytes(StandardCharsets.UTF_8).length, response.getEncodedBody().getContentLength());
+        assertEquals(ByteBuffer.wrap("\u0442\u0435\u043b\u043e".getBytes(StandardCharsets.UTF_8)), response.getEncodedBody().getContent());
+    }
+
+    @Test
+    void testCreateStaticHeaders() {
+        StaticHttpHandlerConfig config = StaticHttpHandlerConfig.builder()
+            .responseCode(200)
+            .responseBody("{}")
+            .responseHeaders(Map.of(
+                "Set-Cookie", List.of("a=1", "b=2"),
+                "content-type", List.of("application/json")))
+            .build();
+
+        HttpResponse response = subject.create(config).handle(null);
+
+        assertEquals(List.of(new HttpHeader("Set-Cookie", "a=1"), new HttpHeader("Set-Cookie", "b=2")), response.getHeaders());
+        assertEquals("application/json", response.getContentType());
+        assertEquals("application/json", response.getEncodedBody().getContentType());
+    }
+
+    @Test
+    void testCreateStaticContentType() {
+        StaticHttpHandlerConfig config = StaticHttpHandlerConfig.builder()
+            .responseBody("{}")
+            .responseContentType("application/json")
+            .responseHeaders(Map.of("Content-Type", List.of("text/html")))
+            .build();
+
+        HttpResponse response = subject.create(config).handle(null);
+
+        assertEquals(List.of(), response.getHeaders());
+        assertEquals("application/json", response.getEncodedBody().getContentType());
+    }
+
+    @Test
+    void testCreateWithLatency() {
+        StaticHttpHandlerConfig config = StaticHttpHandlerConfig.builder()
+            .latency(HttpHandlerLatencyConfig.builder()
+                .type(HttpHandlerLatencyType.FIXED)
+                .millis(10.0)
+                .build())
+            .build();
+
+        HttpHandler handler = subject.create(config);
+
+        assertInstanceOf(LatencyHttpHandler.class, handler);
+        assertSame(config, handler.getConfig());
+    }
+
+    @Test
+    void testCreateWithThrottle() {
+        StaticHttpHandlerConfig config = StaticHttpHandlerConfig.builder()
+            .throttle(HttpHandlerThrottleConfig.builder()
+                .bytesPerSecond(1024)
+                .build())
+            .build();
+
+        HttpHandler handler = subject.create(config);
+
+        assertInstanceOf(ThrottledHttpHandler.class, handler);
+        assertSame(config, handler.getConfig());
+    }
+
     private static Object[][] testCreate() {
         return new Object[][] {
             new Object[] {
@@ -37,6 +138,14 @@ class HttpHandlerFactoryImplTest {
             new Object[] {
                 RouterHttpHandlerConfig.builder().build(),
                 RouterHttpHandler.class
+            },
+            new Object[] {
+                StreamHttpHandlerConfig.builder().build(),
+                StreamHttpHandler.class
+            },
+            new Object[] {
+                GeneratorHttpHandlerConfig.builder().build(),
+                GeneratorHttpHandler.class
             }
         };
     }
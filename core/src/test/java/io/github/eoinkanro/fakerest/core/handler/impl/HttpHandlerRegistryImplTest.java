@@ -1,9 +1,19 @@
 package io.github.eoinkanro.fakerest.core.handler.impl;
 
 import io.github.eoinkanro.fakerest.core.conf.AbstractHttpHandlerConfig;
+import io.github.eoinkanro.fakerest.core.conf.HttpHandlerPathType;
+import io.github.eoinkanro.fakerest.core.conf.HttpRequestMatcherConfig;
+import io.github.eoinkanro.fakerest.core.conf.HttpRequestMatcherSource;
+import io.github.eoinkanro.fakerest.core.conf.impl.RouterHttpHandlerConfig;
+import io.github.eoinkanro.fakerest.core.conf.impl.StaticHttpHandlerConfig;
 import io.github.eoinkanro.fakerest.core.handler.HttpHandler;
+import io.github.eoinkanro.fakerest.core.handler.HttpHandlerMatch;
+import io.github.eoinkanro.fakerest.core.handler.HttpHandlerRegistryBatch;
+import io.github.eoinkanro.fakerest.core.handler.HttpHandlerRegistryListener;
 import io.github.eoinkanro.fakerest.core.handler.RegisterException;
 import io.github.eoinkanro.fakerest.core.model.HttpMethod;
+import io.github.eoinkanro.fakerest.core.model.HttpRequest;
+import io.github.eoinkanro.fakerest.core.model.HttpResponse;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -11,10 +21,19 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
 
 @ExtendWith(MockitoExtension.class)
 class HttpHandlerRegistryImplTest {
@@ -70,4 +89,272 @@ class HttpHandlerRegistryImplTest {
         assertNull(subject.find(method, path));
     }
 
+    @Test
+    @SneakyThrows
+    void testMatch() {
+        HttpMethod method = HttpMethod.GET;
+        String template = "/users/{id}";
+
+        when(handler.getConfig()).thenReturn(config);
+        when(handler2.getConfig()).thenReturn(config2);
+
+        when(config.getId()).thenReturn(UUID.randomUUID().toString());
+        when(config.getMethod()).thenReturn(method);
+        when(config.getPath()).thenReturn(template);
+
+        when(config2.getId()).thenReturn(UUID.randomUUID().toString());
+        when(config2.getMethod()).thenReturn(method);
+        when(config2.getPath()).thenReturn("/users/{name}");
+
+        subject.register(handler);
+
+        HttpHandlerMatch match = subject.match(method, "/users/5");
+        assertSame(handler, match.getHandler());
+        assertEquals(Map.of("id", "5"), match.getPathVariables());
+        assertNull(subject.match(HttpMethod.POST, "/users/5"));
+
+        //ambiguous template
+        assertThrows(RegisterException.class, () -> subject.register(handler2));
+        assertNull(subject.find(method, "/users/{name}"));
+
+        subject.unregister(method, template);
+        assertNull(subject.match(method, "/users/5"));
+    }
+
+    @Test
+    @SneakyThrows
+    void testMatchPattern() {
+        HttpMethod method = HttpMethod.GET;
+        String regex = "/users/(?<id>[0-9]+)";
+
+        when(handler.getConfig()).thenReturn(config);
+        when(handler2.getConfig()).thenReturn(config2);
+
+        when(config.getId()).thenReturn(UUID.randomUUID().toString());
+        when(config.getMethod()).thenReturn(method);
+        when(config.getPath()).thenReturn(regex);
+        when(config.getPathType()).thenReturn(HttpHandlerPathType.REGEX);
+
+        when(config2.getId()).thenReturn(UUID.randomUUID().toString());
+        when(config2.getMethod()).thenReturn(method);
+        when(config2.getPath()).thenReturn("/users/me");
+
+        subject.register(handler);
+        subject.register(handler2);
+
+        HttpHandlerMatch match = subject.match(method, "/users/5");
+        assertSame(handler, match.getHandler());
+        assertEquals(Map.of("id", "5"), match.getPathVariables());
+        //template is checked first
+        assertSame(handler2, subject.match(method, "/users/me").getHandler());
+        assertSame(handler, subject.find(method, regex));
+
+        subject.unregister(method, regex);
+        assertNull(subject.match(method, "/users/5"));
+    }
+
+    @Test
+    @SneakyThrows
+    void testRouterCycle() {
+        RouterHttpHandler routerA = router("/a", "/b");
+        RouterHttpHandler routerB = router("/b", "/c");
+        RouterHttpHandler routerC = router("/c", "/a");
+
+        subject.register(routerA);
+        subject.register(routerB);
+        assertThrows(RegisterException.class, () -> subject.register(routerC));
+        assertThrows(RegisterException.class, () -> subject.register(router("/self", "/self")));
+        assertNull(subject.find(HttpMethod.GET, "/c"));
+
+        //registry change resolves routers again
+        when(handler.getConfig()).thenReturn(config);
+        when(config.getId()).thenReturn(UUID.randomUUID().toString());
+        when(config.getMethod()).thenReturn(HttpMethod.GET);
+        when(config.getPath()).thenReturn("/c");
+        when(handler.handle(null)).thenReturn(HttpResponse.builder().code(200).build());
+
+        assertEquals(404, routerA.handle(null).getCode());
+        subject.register(handler);
+        assertEquals(200, routerA.handle(null).getCode());
+        subject.unregister(HttpMethod.GET, "/c");
+        assertEquals(404, routerA.handle(null).getCode());
+    }
+
+    @Test
+    @SneakyThrows
+    void testApply() {
+        HttpMethod method = HttpMethod.GET;
+
+        when(handler.getConfig()).thenReturn(config);
+        when(handler2.getConfig()).thenReturn(config2);
+
+        when(config.getId()).thenReturn(UUID.randomUUID().toString());
+        when(config.getMethod()).thenReturn(method);
+        when(config.getPath()).thenReturn("/a");
+
+        when(config2.getId()).thenReturn(UUID.randomUUID().toString());
+        when(config2.getMethod()).thenReturn(method);
+        when(config2.getPath()).thenReturn("/a");
+
+        //conflict inside batch, nothing is registered
+        assertThrows(RegisterException.class, () -> subject.apply(new HttpHandlerRegistryBatch()
+            .register(handler)
+            .register(handler2)));
+        assertNull(subject.find(method, "/a"));
+        assertNull(subject.find(config.getId()));
+
+        subject.apply(new HttpHandlerRegistryBatch().register(handler));
+        assertSame(handler, subject.find(method, "/a"));
+
+        //replace in one change
+        subject.apply(new HttpHandlerRegistryBatch()
+            .unregister(method, "/a")
+            .register(handler2));
+        assertSame(handler2, subject.find(method, "/a"));
+        assertSame(handler2, subject.match(method, "/a").getHandler());
+        assertNull(subject.find(config.getId()));
+    }
+
+    @Test
+    @SneakyThrows
+    void testVariants() {
+        HttpMethod method = HttpMethod.GET;
+        StaticHttpHandler defaultHandler = staticHandler("/users/{id}", null);
+        StaticHttpHandler mobileHandler = staticHandler("/users/{id}", List.of(HttpRequestMatcherConfig.builder()
+            .source(HttpRequestMatcherSource.HEADER)
+            .name("X-Client")
+            .equalTo("mobile")
+            .build()));
+
+        subject.register(defaultHandler);
+        subject.register(mobileHandler);
+        assertThrows(RegisterException.class, () -> subject.register(staticHandler("/users/{id}", null)));
+
+        HttpRequest request = HttpRequest.builder().build();
+        request.getHeaders().put("x-client", "mobile");
+        HttpHandler variants = subject.match(method, "/users/5").getHandler();
+        assertSame(variants, subject.find(method, "/users/{id}"));
+        assertEquals("mobile", variants.handle(request).getBody());
+        assertEquals("/users/{id}", variants.handle(HttpRequest.builder().build()).getBody());
+        assertSame(mobileHandler, subject.find(mobileHandler.getConfig().getId()));
+
+        subject.unregister(defaultHandler.getConfig().getId());
+        assertEquals(404, subject.match(method, "/users/5").getHandler().handle(HttpRequest.builder().build()).getCode());
+        assertSame(mobileHandler, subject.find(mobileHandler.getConfig().getId()));
+        assertNull(subject.find(defaultHandler.getConfig().getId()));
+
+        subject.unregister(method, "/users/{id}");
+        assertNull(subject.match(method, "/users/5"));
+        assertNull(subject.find(mobileHandler.getConfig().getId()));
+    }
+
+    @Test
+    @SneakyThrows
+    void testNamespaces() {
+        HttpMethod method = HttpMethod.GET;
+        StaticHttpHandler defaultHandler = namespacedHandler(null, "/users/{id}");
+        StaticHttpHandler billingHandler = namespacedHandler("billing", "/users/{id}");
+
+        subject.register(defaultHandler);
+        subject.register(billingHandler);
+        assertThrows(RegisterException.class, () -> subject.register(namespacedHandler("billing", "/users/{id}")));
+
+        assertSame(defaultHandler, subject.match(method, "/users/5").getHandler());
+        assertSame(billingHandler, subject.match("billing", method, "/users/5").getHandler());
+        assertSame(billingHandler, subject.find("billing", method, "/users/{id}"));
+        assertNull(subject.match("orders", method, "/users/5"));
+
+        //routers route inside their namespace, so the same paths of other namespaces aren't a cycle
+        subject.register(router(null, "/a", "/b"));
+        subject.register(router("billing", "/b", "/a"));
+        RouterHttpHandler billingRouter = router("billing", "/users", "/users/{id}");
+        subject.register(billingRouter);
+        assertEquals("billing", billingRouter.handle(null).getBody());
+
+        subject.unregister("billing", method, "/users/{id}");
+        assertNull(subject.find("billing", method, "/users/{id}"));
+        assertNull(subject.find(billingHandler.getConfig().getId()));
+        assertSame(defaultHandler, subject.find(method, "/users/{id}"));
+        assertEquals(404, billingRouter.handle(null).getCode());
+    }
+
+    @Test
+    @SneakyThrows
+    void testApplyValid() {
+        HttpHandler listener = mock(HttpHandler.class, withSettings().extraInterfaces(HttpHandlerRegistryListener.class));
+        when(listener.getConfig()).thenReturn(config);
+        when(config.getId()).thenReturn(UUID.randomUUID().toString());
+        when(config.getMethod()).thenReturn(HttpMethod.GET);
+        when(config.getPath()).thenReturn("/listener");
+        subject.register(listener);
+        clearInvocations(listener);
+
+        HttpHandlerRegistryBatch batch = new HttpHandlerRegistryBatch();
+        List<HttpHandler> valid = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            StaticHttpHandler handler = staticHandler("/items/" + i + "/{id}", null);
+            valid.add(handler);
+            batch.register(handler);
+            if (i == 500) {
+                batch.register(staticHandler("/items/" + i + "/{name}", null));
+                batch.register(staticHandler("/items/{}", null));
+                batch.register(router("/a", "/b"));
+                batch.register(router("/b", "/a"));
+            }
+        }
+        RouterHttpHandler router = router("/c", "/items/1/{id}");
+        valid.add(router);
+        batch.register(router);
+
+        Map<HttpHandler, RegisterException> rejected = new HashMap<>();
+        subject.applyValid(batch, rejected::put);
+
+        assertEquals(3, rejected.size());
+        for (HttpHandler handler : valid) {
+            assertSame(handler, subject.find(handler.getConfig().getId()));
+        }
+        assertNotNull(subject.find(HttpMethod.GET, "/a"));
+        assertNull(subject.find(HttpMethod.GET, "/b"));
+        assertSame(valid.get(500), subject.match(HttpMethod.GET, "/items/500/5").getHandler());
+        assertEquals("/items/1/{id}", router.handle(HttpRequest.builder().build()).getBody());
+        //published at once
+        verify((HttpHandlerRegistryListener) listener, times(1)).onRegistryChange(HttpMethod.GET);
+    }
+
+    private StaticHttpHandler namespacedHandler(String namespace, String path) {
+        StaticHttpHandlerConfig handlerConfig = StaticHttpHandlerConfig.builder()
+            .id(UUID.randomUUID().toString())
+            .namespace(namespace)
+            .method(HttpMethod.GET)
+            .path(path)
+            .build();
+        return new StaticHttpHandler(handlerConfig, HttpResponse.builder().code(200).body(namespace).build());
+    }
+
+    private StaticHttpHandler staticHandler(String path, List<HttpRequestMatcherConfig> matchers) {
+        StaticHttpHandlerConfig handlerConfig = StaticHttpHandlerConfig.builder()
+            .id(UUID.randomUUID().toString())
+            .method(HttpMethod.GET)
+            .path(path)
+            .matchers(matchers)
+            .build();
+        String body = matchers == null ? path : matchers.get(0).getEqualTo();
+        return new StaticHttpHandler(handlerConfig, HttpResponse.builder().code(200).body(body).build());
+    }
+
+    private RouterHttpHandler router(String path, String routerPath) {
+        return router(null, path, routerPath);
+    }
+
+    private RouterHttpHandler router(String namespace, String path, String routerPath) {
+        RouterHttpHandlerConfig routerConfig = RouterHttpHandlerConfig.builder()
+            .id(UUID.randomUUID().toString())
+            .namespace(namespace)
+            .method(HttpMethod.GET)
+            .path(path)
+            .routerPath(routerPath)
+            .build();
+        return new RouterHttpHandler(routerConfig, subject);
+    }
+
 }
@@ -0,0 +1,130 @@
+package io.github.eoinkanro.fakerest.core.handler.impl;
+
+import io.github.eoinkanro.fakerest.core.conf.HttpHandlerLatencyConfig;
+import io.github.eoinkanro.fakerest.core.conf.HttpHandlerLatencyType;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LatencyDistributionTest {
+
+    private static final int SAMPLES = 100_000;
+
+    @Test
+    void testFixed() {
+        LatencyDistribution subject = LatencyDistribution.of(HttpHandlerLatencyConfig.builder()
+            .type(HttpHandlerLatencyType.FIXED)
+            .millis(12.5)
+            .build());
+
+        assertEquals(12_500_000, subject.nextNanos());
+    }
+
+    @Test
+    void testUniform() {
+        double[] samples = sample(HttpHandlerLatencyConfig.builder()
+            .type(HttpHandlerLatencyType.UNIFORM)
+            .minMillis(10.0)
+            .maxMillis(20.0)
+            .build());
+
+        assertTrue(samples[0] >= 10);
+        assertTrue(samples[SAMPLES - 1] <= 20);
+        assertEquals(15, percentile(samples, 50), 0.2);
+    }
+
+    @Test
+    void testNormal() {
+        double[] samples = sample(HttpHandlerLatencyConfig.builder()
+            .type(HttpHandlerLatencyType.NORMAL)
+            .meanMillis(100.0)
+            .stdDevMillis(10.0)
+            .maxMillis(120.0)
+            .build());
+
+        assertEquals(100, percentile(samples, 50), 0.5);
+        assertEquals(110, percentile(samples, 84.13), 0.5);
+        assertEquals(120, samples[SAMPLES - 1]);
+    }
+
+    @Test
+    void testLogNormal() {
+        double[] samples = sample(HttpHandlerLatencyConfig.builder()
+            .type(HttpHandlerLatencyType.LOG_NORMAL)
+            .meanMillis(100.0)
+            .stdDevMillis(50.0)
+            .build());
+
+        assertEquals(100, Arrays.stream(samples).average().orElseThrow(), 1);
+        assertTrue(percentile(samples, 50) < 100);
+        assertTrue(samples[0] > 0);
+    }
+
+    @Test
+    void testPercentiles() {
+        double[] samples = sample(HttpHandlerLatencyConfig.builder()
+            .type(HttpHandlerLatencyType.PERCENTILES)
+            .percentiles(Map.of(50.0, 20.0, 99.0, 150.0, 99.9, 400.0))
+            .build());
+
+        assertEquals(20, samples[0]);
+        assertEquals(0.5, share(samples, 20), 0.01);
+        assertEquals(0.745, share(samples, 85), 0.01);
+        assertEquals(0.99, share(samples, 150), 0.002);
+        assertEquals(400, samples[SAMPLES - 1]);
+    }
+
+    @Test
+    void testInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> LatencyDistribution.of(HttpHandlerLatencyConfig.builder().build()));
+        assertThrows(IllegalArgumentException.class, () -> LatencyDistribution.of(HttpHandlerLatencyConfig.builder()
+            .type(HttpHandlerLatencyType.FIXED)
+            .build()));
+        assertThrows(IllegalArgumentException.class, () -> LatencyDistribution.of(HttpHandlerLatencyConfig.builder()
+            .type(HttpHandlerLatencyType.UNIFORM)
+            .minMillis(20.0)
+            .maxMillis(10.0)
+            .build()));
+        assertThrows(IllegalArgumentException.class, () -> LatencyDistribution.of(HttpHandlerLatencyConfig.builder()
+            .type(HttpHandlerLatencyType.PERCENTILES)
+            .percentiles(Map.of(50.0, 100.0, 99.0, 10.0))
+            .build()));
+        assertThrows(IllegalArgumentException.class, () -> LatencyDistribution.of(HttpHandlerLatencyConfig.builder()
+            .type(HttpHandlerLatencyType.PERCENTILES)
+            .percentiles(Map.of(150.0, 100.0))
+            .build()));
+    }
+
+    private double[] sample(HttpHandlerLatencyConfig config) {
+        LatencyDistribution subject = LatencyDistribution.of(config);
+        double[] samples = new double[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            samples[i] = subject.nextNanos() / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        }
+        Arrays.sort(samples);
+        return samples;
+    }
+
+    private double percentile(double[] sorted, double percentile) {
+        return sorted[(int) (sorted.length * percentile / 100)];
+    }
+
+    /**
+     * Share of samples is checked instead of a percentile where delays grow steeply,
+     * a small sampling error of percentile is a big error of delay there
+     */
+    private double share(double[] sorted, double delay) {
+        int count = 0;
+        while (count < sorted.length && sorted[count] <= delay) {
+            count++;
+        }
+        return count / (double) sorted.length;
+    }
+
+}
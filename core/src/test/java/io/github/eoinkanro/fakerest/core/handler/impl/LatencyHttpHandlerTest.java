@@ -0,0 +1,74 @@
+package io.github.eoinkanro.fakerest.core.handler.impl;
+
+import io.github.eoinkanro.fakerest.core.conf.HttpHandlerLatencyConfig;
+import io.github.eoinkanro.fakerest.core.conf.HttpHandlerLatencyType;
+import io.github.eoinkanro.fakerest.core.conf.impl.RouterHttpHandlerConfig;
+import io.github.eoinkanro.fakerest.core.conf.impl.StaticHttpHandlerConfig;
+import io.github.eoinkanro.fakerest.core.handler.HttpHandlerRegistry;
+import io.github.eoinkanro.fakerest.core.model.HttpMethod;
+import io.github.eoinkanro.fakerest.core.model.HttpRequest;
+import io.github.eoinkanro.fakerest.core.model.HttpResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class LatencyHttpHandlerTest {
+
+    @Mock
+    private HttpHandlerRegistry registry;
+
+    private final HttpHandlerSchedulerImpl scheduler = new HttpHandlerSchedulerImpl();
+
+    @Test
+    void testHandleAsync() {
+        HttpResponse response = HttpResponse.builder().code(200).build();
+        StaticHttpHandler handler = new StaticHttpHandler(StaticHttpHandlerConfig.builder()
+            .latency(HttpHandlerLatencyConfig.builder()
+                .type(HttpHandlerLatencyType.FIXED)
+                .millis(200.0)
+                .build())
+            .build(), response);
+        LatencyHttpHandler subject = new LatencyHttpHandler(handler, scheduler);
+
+        long start = System.nanoTime();
+        CompletableFuture<HttpResponse> future = subject.handleAsync(HttpRequest.builder().build());
+
+        assertFalse(future.isDone());
+        assertSame(response, future.join());
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(200));
+    }
+
+    @Test
+    void testOnRegistryChange() {
+        RouterHttpHandlerConfig config = RouterHttpHandlerConfig.builder()
+            .method(HttpMethod.GET)
+            .routerPath("/target")
+            .latency(HttpHandlerLatencyConfig.builder()
+                .type(HttpHandlerLatencyType.FIXED)
+                .millis(0.0)
+                .build())
+            .build();
+        LatencyHttpHandler subject = new LatencyHttpHandler(new RouterHttpHandler(config, registry), scheduler);
+
+        subject.handle(HttpRequest.builder().build());
+        subject.handle(HttpRequest.builder().build());
+        subject.onRegistryChange(HttpMethod.GET);
+        subject.handle(HttpRequest.builder().build());
+
+        verify(registry, times(2)).find(isNull(), eq(HttpMethod.GET), eq("/target"));
+    }
+
+}
@@ -0,0 +1,129 @@
+package io.github.eoinkanro.fakerest.core.handler.impl;
+
+import io.github.eoinkanro.fakerest.core.handler.HttpHandler;
+import io.github.eoinkanro.fakerest.core.handler.HttpHandlerMatch;
+import io.github.eoinkanro.fakerest.core.handler.RegisterException;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static io.github.eoinkanro.fakerest.core.conf.HttpHandlerPathType.GLOB;
+import static io.github.eoinkanro.fakerest.core.conf.HttpHandlerPathType.REGEX;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class PathPatternIndexTest {
+
+    private final PathPatternIndex subject = new PathPatternIndex();
+
+    @Test
+    @SneakyThrows
+    void testGlob() {
+        HttpHandler segmentHandler = mock(HttpHandler.class);
+        HttpHandler anyHandler = mock(HttpHandler.class);
+        HttpHandler charHandler = mock(HttpHandler.class);
+
+        subject.add("/files/*.json", GLOB, 0, segmentHandler);
+        subject.add("/files/**", GLOB, 0, anyHandler);
+        subject.add("/v?/files", GLOB, 0, charHandler);
+
+        assertMatch(segmentHandler, Map.of(), subject.match("/files/a.json"));
+        assertMatch(anyHandler, Map.of(), subject.match("/files/a/b.json"));
+        assertMatch(charHandler, Map.of(), subject.match("/v1/files"));
+        assertNull(subject.match("/v10/files"));
+        assertNull(subject.match("/users"));
+    }
+
+    @Test
+    @SneakyThrows
+    void testRegex() {
+        HttpHandler handler = mock(HttpHandler.class);
+        HttpHandler alternationHandler = mock(HttpHandler.class);
+
+        subject.add("/users/(?<id>[0-9]+)/orders/(?<orderId>\\w+)", REGEX, 0, handler);
+        subject.add("/(users|clients)/me", REGEX, 0, alternationHandler);
+
+        assertMatch(handler, Map.of("id", "5", "orderId", "a1"), subject.match("/users/5/orders/a1"));
+        assertMatch(alternationHandler, Map.of(), subject.match("/clients/me"));
+        assertNull(subject.match("/users/x/orders/a1"));
+    }
+
+    @Test
+    @SneakyThrows
+    void testPriority() {
+        HttpHandler lowHandler = mock(HttpHandler.class);
+        HttpHandler highHandler = mock(HttpHandler.class);
+        HttpHandler sameHandler = mock(HttpHandler.class);
+
+        subject.add("/**", GLOB, 0, lowHandler);
+        subject.add("/users/.*", REGEX, 10, highHandler);
+        subject.add("/users/*", GLOB, 10, sameHandler);
+
+        assertMatch(highHandler, Map.of(), subject.match("/users/5"));
+        assertMatch(lowHandler, Map.of(), subject.match("/orders/5"));
+
+        assertSame(highHandler, subject.remove("/users/.*"));
+        assertMatch(sameHandler, Map.of(), subject.match("/users/5"));
+        assertNull(subject.remove("/users/.*"));
+    }
+
+    @Test
+    @SneakyThrows
+    void testRemovePrunesNodes() {
+        HttpHandler handler = mock(HttpHandler.class);
+        subject.add("/users/*", GLOB, 0, handler);
+        int nodesCount = subject.nodesCount();
+
+        for (int i = 0; i < 100; i++) {
+            subject.add("/users/" + i + "/orders/*", GLOB, 0, mock(HttpHandler.class));
+            subject.add("/files/" + i + "/.*", REGEX, 0, mock(HttpHandler.class));
+        }
+        for (int i = 0; i < 100; i++) {
+            subject.remove("/users/" + i + "/orders/*");
+            subject.remove("/files/" + i + "/.*");
+        }
+
+        assertEquals(nodesCount, subject.nodesCount());
+        assertMatch(handler, Map.of(), subject.match("/users/5"));
+
+        subject.remove("/users/*");
+        assertEquals(1, subject.nodesCount());
+    }
+
+    @Test
+    @SneakyThrows
+    void testInvalid() {
+        subject.add("/files/**", GLOB, 0, mock(HttpHandler.class));
+
+        assertThrows(RegisterException.class, () -> subject.add("/files/**", GLOB, 0, mock(HttpHandler.class)));
+        assertThrows(RegisterException.class, () -> subject.add("/users/(", REGEX, 0, mock(HttpHandler.class)));
+    }
+
+    @Test
+    @SneakyThrows
+    void testCopy() {
+        HttpHandler handler = mock(HttpHandler.class);
+        HttpHandler copyHandler = mock(HttpHandler.class);
+        subject.add("/users/*", GLOB, 0, handler);
+
+        PathPatternIndex copy = subject.copy();
+        copy.add("/users/**", GLOB, 1, copyHandler);
+
+        assertMatch(handler, Map.of(), subject.match("/users/5"));
+        assertNull(subject.match("/users/5/orders"));
+        assertMatch(copyHandler, Map.of(), copy.match("/users/5"));
+    }
+
+    @Test
+    void testGlobToRegex() {
+        assertEquals("\\Q/a.\\E[^/]*\\Q/\\E.*[^/]", PathPatternIndex.globToRegex("/a.*/**?"));
+    }
+
+    private void assertMatch(HttpHandler handler, Map<String, String> variables, HttpHandlerMatch match) {
+        assertNotNull(match);
+        assertSame(handler, match.getHandler());
+        assertEquals(variables, match.getPathVariables());
+    }
+
+}
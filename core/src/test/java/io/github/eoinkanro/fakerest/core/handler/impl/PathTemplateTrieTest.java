@@ -0,0 +1,127 @@
+package io.github.eoinkanro.fakerest.core.handler.impl;
+
+import io.github.eoinkanro.fakerest.core.conf.AbstractHttpHandlerConfig;
+import io.github.eoinkanro.fakerest.core.handler.HttpHandler;
+import io.github.eoinkanro.fakerest.core.handler.HttpHandlerMatch;
+import io.github.eoinkanro.fakerest.core.handler.RegisterException;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+
+class PathTemplateTrieTest {
+
+    private final PathTemplateTrie subject = new PathTemplateTrie();
+
+    @Test
+    @SneakyThrows
+    void testMatchPriority() {
+        HttpHandler staticHandler = handler("/users/me");
+        HttpHandler variableHandler = handler("/users/{id}");
+        HttpHandler nestedHandler = handler("/users/{id}/orders/{orderId}");
+        HttpHandler wildcardHandler = handler("/users/*");
+
+        subject.add("/users/me", staticHandler);
+        subject.add("/users/{id}", variableHandler);
+        subject.add("/users/{id}/orders/{orderId}", nestedHandler);
+        subject.add("/users/*", wildcardHandler);
+
+        assertMatch(staticHandler, Map.of(), subject.match("/users/me"));
+        assertMatch(variableHandler, Map.of("id", "5"), subject.match("/users/5"));
+        assertMatch(nestedHandler, Map.of("id", "me", "orderId", "7"), subject.match("/users/me/orders/7"));
+        assertMatch(wildcardHandler, Map.of("*", "5/orders"), subject.match("/users/5/orders"));
+        assertMatch(wildcardHandler, Map.of("*", ""), subject.match("/users/"));
+        assertNull(subject.match("/users"));
+        assertNull(subject.match("/orders/5"));
+    }
+
+    @Test
+    @SneakyThrows
+    void testMatchBacktracking() {
+        //static and variable branches at every depth of the path
+        int depth = 64;
+        HttpHandler[] handlers = new HttpHandler[depth];
+        for (int i = 0; i < depth; i++) {
+            String template = "/a".repeat(i) + "/{v}" + "/a".repeat(depth - i - 1) + "/b";
+            handlers[i] = handler(template);
+            subject.add(template, handlers[i]);
+        }
+        HttpHandler staticHandler = handler("/a".repeat(depth) + "/b");
+        subject.add("/a".repeat(depth) + "/b", staticHandler);
+
+        assertMatch(staticHandler, Map.of(), subject.match("/a".repeat(depth) + "/b"));
+        assertMatch(handlers[5], Map.of("v", "x"), subject.match("/a".repeat(5) + "/x" + "/a".repeat(depth - 6) + "/b"));
+        assertMatch(handlers[depth - 1], Map.of("v", "x"), subject.match("/a".repeat(depth - 1) + "/x/b"));
+        assertNull(subject.match("/a".repeat(depth) + "/c"));
+        assertNull(subject.match("/a".repeat(depth + 1)));
+    }
+
+    @Test
+    @SneakyThrows
+    void testAmbiguous() {
+        subject.add("/users/{id}", handler("/users/{id}"));
+        subject.add("/files/*", handler("/files/*"));
+
+        assertThrows(RegisterException.class, () -> subject.add("/users/{name}", handler("/users/{name}")));
+        assertThrows(RegisterException.class, () -> subject.add("/files/*", handler("/files/*")));
+        assertThrows(RegisterException.class, () -> subject.add("/files/*/x", handler("/files/*/x")));
+        assertThrows(RegisterException.class, () -> subject.add("/files/{}", handler("/files/{}")));
+    }
+
+    @Test
+    @SneakyThrows
+    void testRemove() {
+        HttpHandler variableHandler = handler("/users/{id}");
+        HttpHandler nestedHandler = handler("/users/{id}/orders");
+
+        subject.add("/users/{id}", variableHandler);
+        subject.add("/users/{id}/orders", nestedHandler);
+
+        assertSame(nestedHandler, subject.remove("/users/{id}/orders"));
+        assertNull(subject.match("/users/5/orders"));
+        assertMatch(variableHandler, Map.of("id", "5"), subject.match("/users/5"));
+
+        assertSame(variableHandler, subject.remove("/users/{id}"));
+        assertNull(subject.match("/users/5"));
+        assertNull(subject.remove("/users/{id}"));
+
+        subject.add("/users/{name}", variableHandler);
+        assertMatch(variableHandler, Map.of("name", "5"), subject.match("/users/5"));
+    }
+
+    @Test
+    @SneakyThrows
+    void testCopy() {
+        HttpHandler variableHandler = handler("/users/{id}");
+        HttpHandler nestedHandler = handler("/users/{id}/orders");
+        subject.add("/users/{id}", variableHandler);
+
+        PathTemplateTrie copy = subject.copy();
+        copy.add("/users/{id}/orders", nestedHandler);
+        copy.remove("/users/{id}");
+
+        assertMatch(variableHandler, Map.of("id", "5"), subject.match("/users/5"));
+        assertNull(subject.match("/users/5/orders"));
+        assertNull(copy.match("/users/5"));
+        assertMatch(nestedHandler, Map.of("id", "5"), copy.match("/users/5/orders"));
+    }
+
+    private void assertMatch(HttpHandler handler, Map<String, String> variables, HttpHandlerMatch match) {
+        assertNotNull(match);
+        assertSame(handler, match.getHandler());
+        assertEquals(variables, match.getPathVariables());
+    }
+
+    private HttpHandler handler(String path) {
+        HttpHandler handler = mock(HttpHandler.class);
+        AbstractHttpHandlerConfig config = mock(AbstractHttpHandlerConfig.class);
+        lenient().when(handler.getConfig()).thenReturn(config);
+        lenient().when(config.getPath()).thenReturn(path);
+        return handler;
+    }
+
+}
@@ -3,6 +3,7 @@ package io.github.eoinkanro.fakerest.core.handler.impl;
 import io.github.eoinkanro.fakerest.core.conf.impl.RouterHttpHandlerConfig;
 import io.github.eoinkanro.fakerest.core.handler.HttpHandler;
 import io.github.eoinkanro.fakerest.core.handler.HttpHandlerRegistry;
+import io.github.eoinkanro.fakerest.core.handler.HttpHandlerScheduler;
 import io.github.eoinkanro.fakerest.core.model.HttpMethod;
 import io.github.eoinkanro.fakerest.core.model.HttpRequest;
 import io.github.eoinkanro.fakerest.core.model.HttpResponse;
@@ -15,9 +16,15 @@ import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -46,11 +53,95 @@ class RouterHttpHandlerTest {
 
         when(config.getMethod()).thenReturn(HttpMethod.GET);
         when(config.getRouterPath()).thenReturn(routerPath);
-        when(registry.find(eq(HttpMethod.GET), eq(routerPath)))
+        when(registry.find(isNull(), eq(HttpMethod.GET), eq(routerPath)))
             .thenReturn(routeHandler);
 
         subject.handle(request);
         verify(routeHandler).handle(request);
     }
 
+    @Test
+    void testHandleAsyncOk() {
+        String routerPath = UUID.randomUUID().toString();
+        HttpHandler routeHandler = Mockito.mock(HttpHandler.class);
+        HttpRequest request = HttpRequest.builder().build();
+        CompletableFuture<HttpResponse> response = new CompletableFuture<>();
+
+        when(config.getMethod()).thenReturn(HttpMethod.GET);
+        when(config.getRouterPath()).thenReturn(routerPath);
+        when(registry.find(isNull(), eq(HttpMethod.GET), eq(routerPath)))
+            .thenReturn(routeHandler);
+        when(routeHandler.handleAsync(request)).thenReturn(response);
+
+        assertSame(response, subject.handleAsync(request));
+    }
+
+    @Test
+    void testHandleChainIsResolvedOnce() {
+        HttpHandler routeHandler = Mockito.mock(HttpHandler.class);
+        RouterHttpHandler nextRouter = Mockito.mock(RouterHttpHandler.class);
+        RouterHttpHandlerConfig nextConfig = Mockito.mock(RouterHttpHandlerConfig.class);
+        HttpRequest request = HttpRequest.builder().build();
+
+        when(config.getMethod()).thenReturn(HttpMethod.GET);
+        when(config.getRouterPath()).thenReturn("/next");
+        when(nextRouter.getConfig()).thenReturn(nextConfig);
+        when(nextConfig.getRouterPath()).thenReturn("/last");
+        when(registry.find(null, HttpMethod.GET, "/next")).thenReturn(nextRouter);
+        when(registry.find(null, HttpMethod.GET, "/last")).thenReturn(routeHandler);
+
+        subject.handle(request);
+        subject.handle(request);
+        verify(routeHandler, times(2)).handle(request);
+        verify(nextRouter, never()).handle(request);
+        verify(registry, times(1)).find(null, HttpMethod.GET, "/next");
+
+        //other method doesn't invalidate
+        subject.onRegistryChange(HttpMethod.POST);
+        subject.handle(request);
+        verify(registry, times(1)).find(null, HttpMethod.GET, "/next");
+
+        subject.onRegistryChange(HttpMethod.GET);
+        subject.handle(request);
+        verify(registry, times(2)).find(null, HttpMethod.GET, "/next");
+    }
+
+    @Test
+    void testHandleChainThroughDecoratedRouter() {
+        HttpHandler routeHandler = Mockito.mock(HttpHandler.class);
+        RouterHttpHandler nextRouter = Mockito.mock(RouterHttpHandler.class);
+        RouterHttpHandlerConfig nextConfig = Mockito.mock(RouterHttpHandlerConfig.class);
+        HttpRequest request = HttpRequest.builder().build();
+
+        when(config.getMethod()).thenReturn(HttpMethod.GET);
+        when(config.getRouterPath()).thenReturn("/next");
+        when(nextRouter.getConfig()).thenReturn(nextConfig);
+        when(nextConfig.getRouterPath()).thenReturn("/last");
+        HttpHandler decoratedRouter = new ThrottledHttpHandler(nextRouter, Mockito.mock(HttpHandlerScheduler.class));
+        when(registry.find(null, HttpMethod.GET, "/next")).thenReturn(decoratedRouter);
+        when(registry.find(null, HttpMethod.GET, "/last")).thenReturn(routeHandler);
+
+        subject.handle(request);
+        verify(routeHandler).handle(request);
+        verify(nextRouter, never()).handle(request);
+        verify(nextRouter, never()).handleAsync(request);
+    }
+
+    @Test
+    void testHandleChainOfDecoratedRoutersIsLimited() {
+        RouterHttpHandlerConfig nextConfig = Mockito.mock(RouterHttpHandlerConfig.class);
+        RouterHttpHandler nextRouter = Mockito.mock(RouterHttpHandler.class);
+
+        when(config.getMethod()).thenReturn(HttpMethod.GET);
+        when(config.getRouterPath()).thenReturn("/next");
+        when(nextRouter.getConfig()).thenReturn(nextConfig);
+        when(nextConfig.getRouterPath()).thenReturn("/next");
+        HttpHandler decoratedRouter = new ThrottledHttpHandler(nextRouter, Mockito.mock(HttpHandlerScheduler.class));
+        when(registry.find(null, HttpMethod.GET, "/next")).thenReturn(decoratedRouter);
+
+        HttpResponse response = subject.handle(HttpRequest.builder().build());
+        assertEquals(HttpStatus.NOT_FOUND.getCode(), response.getCode());
+        verify(nextRouter, never()).handleAsync(any());
+    }
+
 }
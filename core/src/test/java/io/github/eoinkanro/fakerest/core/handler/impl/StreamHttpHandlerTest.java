@@ -0,0 +1,106 @@
+package io.github.eoinkanro.fakerest.core.handler.impl;
+
+import io.github.eoinkanro.fakerest.core.conf.impl.StreamHttpHandlerConfig;
+import io.github.eoinkanro.fakerest.core.handler.HttpHandlerScheduler;
+import io.github.eoinkanro.fakerest.core.model.HttpResponse;
+import io.github.eoinkanro.fakerest.core.model.HttpResponseStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class StreamHttpHandlerTest {
+
+    @Mock
+    private HttpHandlerScheduler scheduler;
+
+    @Test
+    void testHandle() {
+        mockScheduler();
+        StreamHttpHandler subject = new StreamHttpHandler(StreamHttpHandlerConfig.builder()
+            .responseCode(201)
+            .chunks(List.of("a", "b"))
+            .intervalMillis(100)
+            .build(), scheduler);
+
+        HttpResponse response = subject.handle(null);
+        HttpResponseStream stream = response.getStream();
+
+        assertEquals(201, response.getCode());
+        assertEquals("text/plain; charset=utf-8", response.getContentType());
+        assertEquals(encode("a"), stream.next().join());
+        assertEquals(encode("b"), stream.next().join());
+        assertNull(stream.next().join());
+        verify(scheduler).delay(eq(100L), any());
+    }
+
+    @Test
+    void testHandleEvents() {
+        StreamHttpHandler subject = new StreamHttpHandler(StreamHttpHandlerConfig.builder()
+            .chunks(List.of("line 1\nline 2"))
+            .events(true)
+            .build(), scheduler);
+
+        HttpResponse response = subject.handle(null);
+
+        assertEquals(200, response.getCode());
+        assertEquals("text/event-stream; charset=utf-8", response.getContentType());
+        assertEquals(encode("data: line 1\ndata: line 2\n\n"), response.getStream().next().join());
+    }
+
+    @Test
+    void testHandleLoop() {
+        mockScheduler();
+        StreamHttpHandler subject = new StreamHttpHandler(StreamHttpHandlerConfig.builder()
+            .chunks(List.of("a", "b"))
+            .intervalMillis(100)
+            .loop(true)
+            .build(), scheduler);
+
+        HttpResponseStream stream = subject.handle(null).getStream();
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(encode(i % 2 == 0 ? "a" : "b"), stream.next().join());
+        }
+        verify(scheduler, times(4)).delay(eq(100L), any());
+    }
+
+    @Test
+    void testHandleIndependentStreams() {
+        StreamHttpHandler subject = new StreamHttpHandler(StreamHttpHandlerConfig.builder()
+            .chunks(List.of("a"))
+            .build(), scheduler);
+
+        HttpResponseStream first = subject.handle(null).getStream();
+        HttpResponseStream second = subject.handle(null).getStream();
+
+        assertEquals(encode("a"), first.next().join());
+        assertNull(first.next().join());
+        assertEquals(encode("a"), second.next().join());
+    }
+
+    private void mockScheduler() {
+        when(scheduler.delay(eq(100L), any())).thenAnswer(invocation ->
+            CompletableFuture.completedFuture(invocation.<Supplier<?>>getArgument(1).get()));
+    }
+
+    private ByteBuffer encode(String chunk) {
+        return ByteBuffer.wrap(chunk.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
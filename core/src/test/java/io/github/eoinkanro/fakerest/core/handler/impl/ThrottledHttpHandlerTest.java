@@ -0,0 +1,133 @@
+package io.github.eoinkanro.fakerest.core.handler.impl;
+
+import io.github.eoinkanro.fakerest.core.conf.HttpHandlerThrottleConfig;
+import io.github.eoinkanro.fakerest.core.conf.impl.RouterHttpHandlerConfig;
+import io.github.eoinkanro.fakerest.core.conf.impl.StaticHttpHandlerConfig;
+import io.github.eoinkanro.fakerest.core.handler.HttpHandlerRegistry;
+import io.github.eoinkanro.fakerest.core.model.EncodedBody;
+import io.github.eoinkanro.fakerest.core.model.HttpHeader;
+import io.github.eoinkanro.fakerest.core.model.HttpMethod;
+import io.github.eoinkanro.fakerest.core.model.HttpRequest;
+import io.github.eoinkanro.fakerest.core.model.HttpResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class ThrottledHttpHandlerTest {
+
+    @Mock
+    private HttpHandlerRegistry registry;
+
+    private final HttpHandlerSchedulerImpl scheduler = new HttpHandlerSchedulerImpl();
+
+    @Test
+    void testHandleBody() {
+        ThrottledHttpHandler subject = new ThrottledHttpHandler(staticHandler(HttpHandlerThrottleConfig.builder()
+            .bytesPerSecond(1_000_000)
+            .build(), HttpResponse.builder()
+                .code(201)
+                .body("\u0442\u0435\u043b\u043e")
+                .contentType("text/plain")
+                .header(new HttpHeader("X-Test", "1"))
+                .build()), scheduler);
+
+        HttpResponse response = subject.handleAsync(HttpRequest.builder().build()).join();
+
+        assertEquals(201, response.getCode());
+        assertNull(response.getBody());
+        assertEquals("text/plain", response.getContentType());
+        assertEquals(List.of(new HttpHeader("X-Test", "1"), new HttpHeader("Content-Length", "8")), response.getHeaders());
+        assertEquals(StandardCharsets.UTF_8.encode("\u0442\u0435\u043b\u043e"), response.getStream().next().join());
+        assertNull(response.getStream().next().join());
+    }
+
+    @Test
+    void testHandleEncodedBody() {
+        ThrottledHttpHandler subject = new ThrottledHttpHandler(staticHandler(HttpHandlerThrottleConfig.builder()
+            .bodyDelayMillis(10)
+            .build(), HttpResponse.builder()
+                .code(200)
+                .encodedBody(EncodedBody.of("{}", "application/json"))
+                .build()), scheduler);
+
+        HttpResponse response = subject.handleAsync(HttpRequest.builder().build()).join();
+
+        assertEquals("application/json", response.getContentType());
+        assertEquals(List.of(new HttpHeader("Content-Length", "2")), response.getHeaders());
+        assertEquals(StandardCharsets.UTF_8.encode("{}"), response.getStream().next().join());
+    }
+
+    @Test
+    void testHandleConcurrencyLimit() {
+        ThrottledHttpHandler subject = new ThrottledHttpHandler(staticHandler(HttpHandlerThrottleConfig.builder()
+            .maxConcurrentRequests(1)
+            .build(), HttpResponse.builder().code(200).build()), scheduler);
+
+        HttpResponse first = subject.handleAsync(HttpRequest.builder().build()).join();
+        HttpResponse rejected = subject.handleAsync(HttpRequest.builder().build()).join();
+        first.getStream().close();
+        HttpResponse second = subject.handleAsync(HttpRequest.builder().build()).join();
+
+        assertEquals(200, first.getCode());
+        assertEquals(503, rejected.getCode());
+        assertEquals(200, second.getCode());
+    }
+
+    @Test
+    void testHandleSyncReleasesRequest() {
+        ThrottledHttpHandler subject = new ThrottledHttpHandler(staticHandler(HttpHandlerThrottleConfig.builder()
+            .maxConcurrentRequests(1)
+            .bytesPerSecond(1_000_000)
+            .build(), HttpResponse.builder()
+                .code(200)
+                .body("body")
+                .contentType("text/plain")
+                .build()), scheduler);
+
+        for (int i = 0; i < 3; i++) {
+            HttpResponse response = subject.handle(HttpRequest.builder().build());
+
+            assertEquals(200, response.getCode());
+            assertNull(response.getStream());
+            assertEquals(List.of(), response.getHeaders());
+            assertEquals("text/plain", response.getEncodedBody().getContentType());
+            assertEquals(StandardCharsets.UTF_8.encode("body"), response.getEncodedBody().getContent());
+        }
+    }
+
+    @Test
+    void testOnRegistryChange() {
+        RouterHttpHandlerConfig config = RouterHttpHandlerConfig.builder()
+            .method(HttpMethod.GET)
+            .routerPath("/target")
+            .throttle(HttpHandlerThrottleConfig.builder().build())
+            .build();
+        ThrottledHttpHandler subject = new ThrottledHttpHandler(new RouterHttpHandler(config, registry), scheduler);
+
+        subject.handle(HttpRequest.builder().build());
+        subject.handle(HttpRequest.builder().build());
+        subject.onRegistryChange(HttpMethod.GET);
+        subject.handle(HttpRequest.builder().build());
+
+        verify(registry, times(2)).find(isNull(), eq(HttpMethod.GET), eq("/target"));
+    }
+
+    private StaticHttpHandler staticHandler(HttpHandlerThrottleConfig throttle, HttpResponse response) {
+        return new StaticHttpHandler(StaticHttpHandlerConfig.builder()
+            .throttle(throttle)
+            .build(), response);
+    }
+
+}
@@ -0,0 +1,78 @@
+package io.github.eoinkanro.fakerest.core.handler.impl;
+
+import io.github.eoinkanro.fakerest.core.model.HttpResponseStream;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ThrottledHttpResponseStreamTest {
+
+    private final HttpHandlerSchedulerImpl scheduler = new HttpHandlerSchedulerImpl();
+
+    @Test
+    void testNextSplitsChunks() {
+        ThrottledHttpResponseStream subject = new ThrottledHttpResponseStream(stream(2_500, 500), 20_000, 0, scheduler);
+
+        List<Integer> pieces = new ArrayList<>();
+        ByteBuffer piece;
+        while ((piece = subject.next().join()) != null) {
+            pieces.add(piece.remaining());
+        }
+
+        //bandwidth is spread over 20 pieces per second, a piece doesn't join chunks
+        assertEquals(List.of(1_000, 1_000, 500, 500), pieces);
+    }
+
+    @Test
+    void testNextLimitsBandwidth() {
+        ThrottledHttpResponseStream subject = new ThrottledHttpResponseStream(stream(10_000), 20_000, 0, scheduler);
+
+        long start = System.nanoTime();
+        long written = 0;
+        ByteBuffer piece;
+        while ((piece = subject.next().join()) != null) {
+            written += piece.remaining();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        //the last piece is due when the bytes before it are written
+        assertEquals(10_000, written);
+        assertTrue(elapsed >= TimeUnit.MILLISECONDS.toNanos(450));
+        assertTrue(elapsed < TimeUnit.MILLISECONDS.toNanos(2_000));
+    }
+
+    @Test
+    void testNextDelaysFirstPiece() {
+        ThrottledHttpResponseStream subject = new ThrottledHttpResponseStream(stream(100, 100), 0, 200, scheduler);
+
+        long start = System.nanoTime();
+        CompletableFuture<ByteBuffer> first = subject.next();
+        assertEquals(100, first.join().remaining());
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(200));
+
+        CompletableFuture<ByteBuffer> second = subject.next();
+        assertTrue(second.isDone());
+        assertEquals(100, second.join().remaining());
+        assertNull(subject.next().join());
+    }
+
+    private HttpResponseStream stream(int... chunkSizes) {
+        List<CompletableFuture<ByteBuffer>> chunks = new ArrayList<>();
+        for (int size : chunkSizes) {
+            chunks.add(CompletableFuture.completedFuture(ByteBuffer.allocate(size)));
+        }
+        chunks.add(CompletableFuture.completedFuture(null));
+        Iterator<CompletableFuture<ByteBuffer>> iterator = chunks.iterator();
+        return iterator::next;
+    }
+
+}
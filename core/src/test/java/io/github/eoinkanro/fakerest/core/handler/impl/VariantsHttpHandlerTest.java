@@ -0,0 +1,174 @@
+package io.github.eoinkanro.fakerest.core.handler.impl;
+
+import io.github.eoinkanro.fakerest.core.conf.HttpHandlerPathType;
+import io.github.eoinkanro.fakerest.core.conf.HttpRequestMatcherConfig;
+import io.github.eoinkanro.fakerest.core.conf.HttpRequestMatcherSource;
+import io.github.eoinkanro.fakerest.core.conf.impl.StaticHttpHandlerConfig;
+import io.github.eoinkanro.fakerest.core.handler.HttpHandler;
+import io.github.eoinkanro.fakerest.core.handler.RegisterException;
+import io.github.eoinkanro.fakerest.core.model.HttpMethod;
+import io.github.eoinkanro.fakerest.core.model.HttpRequest;
+import io.github.eoinkanro.fakerest.core.model.HttpRequestSource;
+import io.github.eoinkanro.fakerest.core.model.HttpResponse;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static io.github.eoinkanro.fakerest.core.conf.HttpRequestMatcherSource.BODY;
+import static io.github.eoinkanro.fakerest.core.conf.HttpRequestMatcherSource.HEADER;
+import static io.github.eoinkanro.fakerest.core.conf.HttpRequestMatcherSource.QUERY;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class VariantsHttpHandlerTest {
+
+    @Test
+    @SneakyThrows
+    void testFind() {
+        HttpHandler defaultHandler = handler();
+        HttpHandler headerHandler = handler(equalTo(HEADER, "X-Client", "mobile"));
+        HttpHandler headerQueryHandler = handler(equalTo(HEADER, "x-client", "mobile"), equalTo(QUERY, "page", "2"));
+        HttpHandler regexHandler = handler(regex(QUERY, "id", "[0-9]+"));
+        HttpHandler bodyHandler = handler(equalTo(BODY, "/user/type", "admin"));
+
+        VariantsHttpHandler subject = VariantsHttpHandler.of(defaultHandler)
+            .with(headerHandler)
+            .with(headerQueryHandler)
+            .with(regexHandler)
+            .with(bodyHandler);
+
+        assertSame(defaultHandler, subject.find(request(null)));
+        assertSame(headerHandler, subject.find(request(null, "x-client", "mobile")));
+        assertSame(defaultHandler, subject.find(request(null, "x-client", "desktop")));
+
+        HttpRequest request = query(Map.of("page", List.of("2")), "X-Client", "mobile");
+        assertSame(headerQueryHandler, subject.find(request));
+
+        assertSame(regexHandler, subject.find(query(Map.of("id", List.of("15")))));
+        assertSame(defaultHandler, subject.find(query(Map.of("id", List.of("a")))));
+
+        assertSame(bodyHandler, subject.find(request("{\"user\":{\"type\":\"admin\"}}")));
+        assertSame(defaultHandler, subject.find(request("not json")));
+    }
+
+    @Test
+    @SneakyThrows
+    void testFindByRepeatedQueryParam() {
+        HttpHandler defaultHandler = handler();
+        HttpHandler equalToHandler = handler(equalTo(QUERY, "a", "1"));
+        HttpHandler regexHandler = handler(regex(QUERY, "b", "[0-9]+"));
+        VariantsHttpHandler subject = VariantsHttpHandler.of(defaultHandler)
+            .with(equalToHandler)
+            .with(regexHandler);
+
+        assertSame(equalToHandler, subject.find(query(Map.of("a", List.of("1", "2")))));
+        assertSame(equalToHandler, subject.find(query(Map.of("a", List.of("2", "1")))));
+        assertSame(defaultHandler, subject.find(query(Map.of("a", List.of("2", "3")))));
+        assertSame(regexHandler, subject.find(query(Map.of("b", List.of("x", "7")))));
+
+        //variables of request aren't query params
+        HttpRequest request = query(Map.of("a", List.of("2")));
+        request.getVariables().put("a", "1");
+        assertSame(defaultHandler, subject.find(request));
+    }
+
+    @Test
+    @SneakyThrows
+    void testWithout() {
+        HttpHandler defaultHandler = handler();
+        HttpHandler headerHandler = handler(equalTo(HEADER, "X-Client", "mobile"));
+        VariantsHttpHandler subject = VariantsHttpHandler.of(headerHandler).with(defaultHandler);
+
+        assertSame(defaultHandler, subject.without(headerHandler));
+        VariantsHttpHandler withoutDefault = (VariantsHttpHandler) subject.without(defaultHandler);
+        assertEquals(List.of(headerHandler), withoutDefault.handlers());
+        assertNull(withoutDefault.find(request(null)));
+        assertEquals(404, withoutDefault.handle(request(null)).getCode());
+        assertNull(withoutDefault.without(headerHandler));
+    }
+
+    @Test
+    @SneakyThrows
+    void testInvalid() {
+        VariantsHttpHandler subject = VariantsHttpHandler.of(handler(equalTo(HEADER, "X-Client", "mobile")))
+            .with(handler());
+
+        assertThrows(RegisterException.class, () -> subject.with(handler()));
+        assertThrows(RegisterException.class, () -> subject.with(handler(equalTo(HEADER, "X-Client", "mobile"))));
+        assertThrows(RegisterException.class, () -> subject.with(handler(regex(QUERY, "id", "("))));
+        assertThrows(RegisterException.class, () -> subject.with(handler(HttpRequestMatcherConfig.builder()
+            .source(QUERY)
+            .name("id")
+            .build())));
+    }
+
+    @Test
+    @SneakyThrows
+    void testPathType() {
+        HttpHandler defaultHandler = handler();
+        HttpHandler templateHandler = handler(HttpHandlerPathType.TEMPLATE, equalTo(HEADER, "X-Client", "mobile"));
+
+        VariantsHttpHandler subject = VariantsHttpHandler.of(defaultHandler).with(templateHandler);
+        assertSame(templateHandler, subject.find(request(null, "x-client", "mobile")));
+        assertThrows(RegisterException.class, () -> subject.with(handler(HttpHandlerPathType.GLOB, equalTo(QUERY, "page", "2"))));
+    }
+
+    private HttpHandler handler(HttpRequestMatcherConfig... matchers) {
+        return handler(null, matchers);
+    }
+
+    private HttpHandler handler(HttpHandlerPathType pathType, HttpRequestMatcherConfig... matchers) {
+        StaticHttpHandlerConfig config = StaticHttpHandlerConfig.builder()
+            .id(UUID.randomUUID().toString())
+            .method(HttpMethod.GET)
+            .path("/users")
+            .pathType(pathType)
+            .matchers(matchers.length == 0 ? null : List.of(matchers))
+            .build();
+        return new StaticHttpHandler(config, HttpResponse.builder().code(200).build());
+    }
+
+    private HttpRequestMatcherConfig equalTo(HttpRequestMatcherSource source, String name, String value) {
+        return HttpRequestMatcherConfig.builder()
+            .source(source)
+            .name(name)
+            .equalTo(value)
+            .build();
+    }
+
+    private HttpRequestMatcherConfig regex(HttpRequestMatcherSource source, String name, String regex) {
+        return HttpRequestMatcherConfig.builder()
+            .source(source)
+            .name(name)
+            .regex(regex)
+            .build();
+    }
+
+    private HttpRequest query(Map<String, List<String>> queryParams, String... headers) {
+        HttpRequestSource source = mock(HttpRequestSource.class);
+        when(source.queryParams()).thenReturn(queryParams);
+        Map<String, String> headersMap = new HashMap<>();
+        for (int i = 0; i < headers.length; i += 2) {
+            headersMap.put(headers[i], headers[i + 1]);
+        }
+        when(source.headers()).thenReturn(headersMap);
+        HttpRequest request = HttpRequest.builder().source(source).build();
+        //headers are copied, so they are found case insensitive
+        request.getHeaders();
+        return request;
+    }
+
+    private HttpRequest request(String body, String... headers) {
+        HttpRequest request = HttpRequest.builder().body(body).build();
+        for (int i = 0; i < headers.length; i += 2) {
+            request.getHeaders().put(headers[i], headers[i + 1]);
+        }
+        return request;
+    }
+
+}
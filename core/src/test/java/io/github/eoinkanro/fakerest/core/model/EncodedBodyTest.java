@@ -0,0 +1,83 @@
+package io.github.eoinkanro.fakerest.core.model;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class EncodedBodyTest {
+
+    private static final String BODY = "{\"key\": \"value\"}".repeat(200);
+
+    @Test
+    void testContentIsNotConsumed() {
+        EncodedBody subject = EncodedBody.of("body", "text/plain");
+
+        subject.getContent().get(new byte[4]);
+
+        assertEquals(4, subject.getContentLength());
+        assertEquals(ByteBuffer.wrap("body".getBytes(StandardCharsets.UTF_8)), subject.getContent());
+    }
+
+    @Test
+    void testCompressShortBody() {
+        EncodedBody subject = EncodedBody.of("body", "text/plain");
+
+        assertSame(subject, subject.compress(1500));
+        assertFalse(subject.isCompressed());
+        assertEquals(ContentEncoding.IDENTITY, subject.negotiate("gzip"));
+    }
+
+    @Test
+    @SneakyThrows
+    void testCompress() {
+        EncodedBody subject = EncodedBody.of(BODY, "application/json").compress(1500);
+        byte[] body = BODY.getBytes(StandardCharsets.UTF_8);
+
+        assertTrue(subject.isCompressed());
+        assertTrue(subject.getContentLength(ContentEncoding.GZIP) < body.length);
+        assertArrayEquals(body, new GZIPInputStream(toStream(subject.getContent(ContentEncoding.GZIP))).readAllBytes());
+        assertArrayEquals(body, new InflaterInputStream(toStream(subject.getContent(ContentEncoding.DEFLATE))).readAllBytes());
+        assertArrayEquals(body, toStream(subject.getContent()).readAllBytes());
+    }
+
+    @ParameterizedTest
+    @CsvSource(delimiter = '|', nullValues = "null", value = {
+        "null|IDENTITY",
+        "identity|IDENTITY",
+        "gzip|GZIP",
+        "deflate|DEFLATE",
+        "gzip, deflate, br|GZIP",
+        "GZIP|GZIP",
+        "deflate;q=1.0, gzip;q=0.5|DEFLATE",
+        "gzip;q=0, deflate;q=0|IDENTITY",
+        "*|GZIP",
+        "gzip;q=0, *|DEFLATE",
+        "br|IDENTITY"
+    })
+    void testNegotiate(String acceptEncoding, ContentEncoding expected) {
+        EncodedBody subject = EncodedBody.of(BODY, "application/json").compress(1500);
+
+        assertEquals(expected, subject.negotiate(acceptEncoding));
+    }
+
+    private InputStream toStream(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return new ByteArrayInputStream(bytes);
+    }
+
+}
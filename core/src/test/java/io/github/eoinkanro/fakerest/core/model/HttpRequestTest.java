@@ -0,0 +1,104 @@
+package io.github.eoinkanro.fakerest.core.model;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class HttpRequestTest {
+
+    @Mock
+    private HttpRequestSource source;
+
+    @Test
+    void testSourceIsNotReadWithoutAccess() {
+        HttpRequest.builder().source(source).build();
+
+        verifyNoInteractions(source);
+    }
+
+    @Test
+    void testSourceIsReadOnce() {
+        when(source.body()).thenReturn("body");
+        when(source.queryParams()).thenReturn(Map.of("key", List.of("value1", "value2")));
+        when(source.pathVariables()).thenReturn(Map.of("id", "1"));
+        when(source.headers()).thenReturn(Map.of("X-Header", "value"));
+        when(source.cookies()).thenReturn(Map.of("session", "id"));
+
+        HttpRequest subject = HttpRequest.builder().source(source).build();
+
+        for (int i = 0; i < 2; i++) {
+            assertEquals("body", subject.getBody());
+            assertEquals(List.of("value1", "value2"), subject.getQueryParams().get("key"));
+            assertEquals("value1, value2", subject.getVariables().get("key"));
+            assertEquals("1", subject.getPathVariables().get("id"));
+            assertEquals("value", subject.getHeaders().get("x-header"));
+            assertEquals("value", subject.getHeader("x-header"));
+            assertEquals("id", subject.getCookies().get("session"));
+        }
+
+        verify(source, times(1)).body();
+        verify(source, times(1)).queryParams();
+        verify(source, times(1)).pathVariables();
+        verify(source, times(1)).headers();
+        verify(source, times(1)).cookies();
+        verify(source, never()).header("x-header");
+    }
+
+    @Test
+    void testHeaderIsReadWithoutCopyingHeaders() {
+        when(source.header("X-Header")).thenReturn("value");
+
+        HttpRequest subject = HttpRequest.builder().source(source).build();
+
+        assertEquals("value", subject.getHeader("X-Header"));
+        verify(source, never()).headers();
+    }
+
+    @Test
+    void testWithoutSource() {
+        HttpRequest subject = HttpRequest.builder().body("body").build();
+        subject.getVariables().put("key", "value");
+
+        assertArrayEquals("body".getBytes(), subject.getBodyBytes());
+        assertEquals("value", subject.getVariables().get("key"));
+        assertEquals(Map.of(), subject.getQueryParams());
+        assertEquals(Map.of(), subject.getHeaders());
+    }
+
+    @Test
+    void testEqualsDoesNotDependOnReadParts() {
+        when(source.body()).thenReturn("body");
+        when(source.queryParams()).thenReturn(Map.of("key", List.of("value")));
+        when(source.pathVariables()).thenReturn(Map.of());
+        when(source.headers()).thenReturn(Map.of());
+        when(source.cookies()).thenReturn(Map.of());
+
+        HttpRequest subject = HttpRequest.builder().source(source).build();
+        HttpRequest expected = HttpRequest.builder().body("body").build();
+        expected.getVariables().put("key", "value");
+
+        assertNotEquals(expected, subject);
+
+        HttpRequest lazy = HttpRequest.builder().source(source).build();
+        int hashCode = lazy.hashCode();
+        lazy.getBody();
+        assertEquals(hashCode, lazy.hashCode());
+        assertEquals(subject, lazy);
+        assertEquals(lazy, subject);
+    }
+
+}
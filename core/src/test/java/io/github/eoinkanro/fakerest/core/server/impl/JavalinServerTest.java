@@ -2,26 +2,57 @@ package io.github.eoinkanro.fakerest.core.server.impl;
 
 import io.github.eoinkanro.fakerest.core.conf.Config;
 import io.github.eoinkanro.fakerest.core.conf.ConfigLoader;
+import io.github.eoinkanro.fakerest.core.conf.MockListenerConfig;
 import io.github.eoinkanro.fakerest.core.handler.HttpHandler;
+import io.github.eoinkanro.fakerest.core.handler.HttpHandlerMatch;
 import io.github.eoinkanro.fakerest.core.handler.HttpHandlerRegistry;
+import io.github.eoinkanro.fakerest.core.model.ContentEncoding;
+import io.github.eoinkanro.fakerest.core.model.EncodedBody;
+import io.github.eoinkanro.fakerest.core.model.HttpHeader;
+import io.github.eoinkanro.fakerest.core.model.HttpMethod;
 import io.github.eoinkanro.fakerest.core.model.HttpRequest;
 import io.github.eoinkanro.fakerest.core.model.HttpResponse;
+import io.github.eoinkanro.fakerest.core.model.HttpResponseStream;
 import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManagerFactory;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.net.ServerSocket;
 import java.net.URI;
 import java.net.http.HttpClient;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.KeyStore;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -42,6 +73,11 @@ class JavalinServerTest {
     @InjectMocks
     private JavalinServer subject;
 
+    @AfterEach
+    void tearDown() {
+        subject.close();
+    }
+
     @Test
     @SneakyThrows
     void test() {
@@ -58,16 +94,23 @@ class JavalinServerTest {
                 .body(body)
                 .build();
         requestWithBody.getVariables().putAll(queryMap);
+        requestWithBody.getPathVariables().put("var", "value");
 
         HttpRequest requestWithoutBody = HttpRequest.builder()
                 .body("")
                 .build();
         requestWithoutBody.getVariables().putAll(queryMap);
+        requestWithoutBody.getPathVariables().put("var", "value");
 
         when(configLoader.loadOrGetCached()).thenReturn(config);
         when(config.getMockPort()).thenReturn(port);
-        when(registry.find(any(), eq(path))).thenReturn(handler);
-        when(handler.handle(any())).thenReturn(response);
+        when(config.getMinThreads()).thenReturn(8);
+        when(config.getMaxThreads()).thenReturn(250);
+        when(registry.match(eq(""), any(), eq(path))).thenReturn(new HttpHandlerMatch(handler, Map.of("var", "value")));
+        when(handler.handleAsync(any())).thenAnswer(invocation -> {
+            readRequest(invocation.getArgument(0));
+            return CompletableFuture.completedFuture(response);
+        });
         when(response.getBody()).thenReturn(body);
         when(response.getCode()).thenReturn(200);
 
@@ -82,7 +125,7 @@ class JavalinServerTest {
         java.net.http.HttpResponse<String> response =
             client.send(requestToServer, java.net.http.HttpResponse.BodyHandlers.ofString());
 
-        verify(handler).handle(eq(requestWithoutBody));
+        verify(handler).handleAsync(argThat(request -> isSameRequest(requestWithoutBody, request)));
         assertEquals(body, response.body());
 
         //test POST with body and query variables
@@ -94,10 +137,389 @@ class JavalinServerTest {
         response = client.send(requestToServer,
             java.net.http.HttpResponse.BodyHandlers.ofString());
 
-        verify(handler).handle(eq(requestWithBody));
+        verify(handler).handleAsync(argThat(request -> isSameRequest(requestWithBody, request)));
         assertEquals(body, response.body());
     }
 
+    @Test
+    @SneakyThrows
+    void testAsyncResponse() {
+        HttpClient client = HttpClient.newHttpClient();
+
+        int port = getFreePort();
+        String body = UUID.randomUUID().toString();
+        CompletableFuture<HttpResponse> future = new CompletableFuture<>();
+
+        when(configLoader.loadOrGetCached()).thenReturn(config);
+        when(config.getMockPort()).thenReturn(port);
+        when(config.getMinThreads()).thenReturn(8);
+        when(config.getMaxThreads()).thenReturn(250);
+        when(registry.match(eq(""), any(), eq("/path"))).thenReturn(new HttpHandlerMatch(handler, Map.of()));
+        when(handler.handleAsync(any())).thenReturn(future);
+        when(response.getBody()).thenReturn(body);
+        when(response.getContentType()).thenReturn("application/json");
+        when(response.getCode()).thenReturn(202);
+
+        subject.init();
+
+        java.net.http.HttpRequest requestToServer = java.net.http.HttpRequest.newBuilder()
+            .uri(URI.create("http://localhost:" + port + "/path"))
+            .GET()
+            .build();
+
+        CompletableFuture<java.net.http.HttpResponse<String>> responseFromServer =
+            client.sendAsync(requestToServer, java.net.http.HttpResponse.BodyHandlers.ofString());
+
+        verify(handler, timeout(5000)).handleAsync(any());
+        assertFalse(responseFromServer.isDone());
+
+        future.complete(response);
+        assertEquals(202, responseFromServer.get().statusCode());
+        assertEquals("application/json", responseFromServer.get().headers().firstValue("Content-Type").orElseThrow());
+        assertEquals(body, responseFromServer.get().body());
+    }
+
+    @Test
+    @SneakyThrows
+    void testEncodedBody() {
+        HttpClient client = HttpClient.newHttpClient();
+
+        int port = getFreePort();
+        String body = "\u0442\u0435\u043b\u043e \u043e\u0442\u0432\u0435\u0442\u0430 " + UUID.randomUUID();
+        EncodedBody encodedBody = EncodedBody.of(body, "application/json");
+
+        when(configLoader.loadOrGetCached()).thenReturn(config);
+        when(config.getMockPort()).thenReturn(port);
+        when(config.getMinThreads()).thenReturn(8);
+        when(config.getMaxThreads()).thenReturn(250);
+        when(registry.match(eq(""), any(), eq("/path"))).thenReturn(new HttpHandlerMatch(handler, Map.of()));
+        when(handler.handleAsync(any())).thenReturn(CompletableFuture.completedFuture(response));
+        when(response.getEncodedBody()).thenReturn(encodedBody);
+        when(response.getHeaders()).thenReturn(List.of(new HttpHeader("X-Test", "1"), new HttpHeader("X-Test", "2")));
+        when(response.getCode()).thenReturn(200);
+
+        subject.init();
+
+        java.net.http.HttpRequest requestToServer = java.net.http.HttpRequest.newBuilder()
+            .uri(URI.create("http://localhost:" + port + "/path"))
+            .GET()
+            .build();
+
+        for (int i = 0; i < 2; i++) {
+            java.net.http.HttpResponse<String> responseFromServer =
+                client.send(requestToServer, java.net.http.HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+
+            assertEquals(200, responseFromServer.statusCode());
+            assertEquals(body, responseFromServer.body());
+            assertEquals("application/json", responseFromServer.headers().firstValue("Content-Type").orElseThrow());
+            assertEquals(encodedBody.getContentLength(), responseFromServer.headers().firstValueAsLong("Content-Length").orElseThrow());
+            assertEquals(List.of("1", "2"), responseFromServer.headers().allValues("X-Test"));
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void testCompressedBody() {
+        HttpClient client = HttpClient.newHttpClient();
+
+        int port = getFreePort();
+        String body = UUID.randomUUID().toString().repeat(100);
+        EncodedBody encodedBody = EncodedBody.of(body, "application/json").compress(1500);
+
+        when(configLoader.loadOrGetCached()).thenReturn(config);
+        when(config.getMockPort()).thenReturn(port);
+        when(config.getMinThreads()).thenReturn(8);
+        when(config.getMaxThreads()).thenReturn(250);
+        when(registry.match(eq(""), any(), eq("/path"))).thenReturn(new HttpHandlerMatch(handler, Map.of()));
+        when(handler.handleAsync(any())).thenReturn(CompletableFuture.completedFuture(response));
+        when(response.getEncodedBody()).thenReturn(encodedBody);
+        when(response.getCode()).thenReturn(200);
+
+        subject.init();
+
+        //test gzip
+        java.net.http.HttpRequest requestToServer = java.net.http.HttpRequest.newBuilder()
+            .uri(URI.create("http://localhost:" + port + "/path"))
+            .header("Accept-Encoding", "gzip, deflate")
+            .GET()
+            .build();
+
+        java.net.http.HttpResponse<byte[]> responseFromServer =
+            client.send(requestToServer, java.net.http.HttpResponse.BodyHandlers.ofByteArray());
+
+        assertEquals("gzip", responseFromServer.headers().firstValue("Content-Encoding").orElseThrow());
+        assertEquals("Accept-Encoding", responseFromServer.headers().firstValue("Vary").orElseThrow());
+        assertEquals(encodedBody.getContentLength(ContentEncoding.GZIP), responseFromServer.body().length);
+        assertEquals(body, new String(new GZIPInputStream(new ByteArrayInputStream(responseFromServer.body())).readAllBytes(), StandardCharsets.UTF_8));
+
+        //test without compression
+        requestToServer = java.net.http.HttpRequest.newBuilder()
+            .uri(URI.create("http://localhost:" + port + "/path"))
+            .GET()
+            .build();
+
+        responseFromServer = client.send(requestToServer, java.net.http.HttpResponse.BodyHandlers.ofByteArray());
+
+        assertFalse(responseFromServer.headers().firstValue("Content-Encoding").isPresent());
+        assertEquals("Accept-Encoding", responseFromServer.headers().firstValue("Vary").orElseThrow());
+        assertEquals(body, new String(responseFromServer.body(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    @SneakyThrows
+    void testStream() {
+        int port = getFreePort();
+        CompletableFuture<ByteBuffer> secondChunk = new CompletableFuture<>();
+        Iterator<CompletableFuture<ByteBuffer>> chunks = List.of(
+            CompletableFuture.completedFuture(StandardCharsets.UTF_8.encode("data: 1\n\n")),
+            secondChunk,
+            CompletableFuture.<ByteBuffer>completedFuture(null)).iterator();
+
+        when(configLoader.loadOrGetCached()).thenReturn(config);
+        when(config.getMockPort()).thenReturn(port);
+        when(config.getMinThreads()).thenReturn(8);
+        when(config.getMaxThreads()).thenReturn(250);
+        when(registry.match(eq(""), any(), eq("/path"))).thenReturn(new HttpHandlerMatch(handler, Map.of()));
+        when(handler.handleAsync(any())).thenReturn(CompletableFuture.completedFuture(response));
+        AtomicBoolean closed = new AtomicBoolean();
+        when(response.getStream()).thenReturn(new HttpResponseStream() {
+            @Override
+            public CompletableFuture<ByteBuffer> next() {
+                return chunks.next();
+            }
+
+            @Override
+            public void close() {
+                closed.set(true);
+            }
+        });
+        when(response.getContentType()).thenReturn("text/event-stream");
+        when(response.getCode()).thenReturn(200);
+
+        subject.init();
+
+        java.net.http.HttpRequest requestToServer = java.net.http.HttpRequest.newBuilder()
+            .uri(URI.create("http://localhost:" + port + "/path"))
+            .GET()
+            .build();
+
+        java.net.http.HttpResponse<Stream<String>> responseFromServer =
+            HttpClient.newHttpClient().send(requestToServer, java.net.http.HttpResponse.BodyHandlers.ofLines());
+        Iterator<String> lines = responseFromServer.body().iterator();
+
+        //first chunk is received before the second one is ready
+        assertEquals(200, responseFromServer.statusCode());
+        assertEquals("text/event-stream", responseFromServer.headers().firstValue("Content-Type").orElseThrow());
+        assertEquals("data: 1", lines.next());
+        assertEquals("", lines.next());
+
+        secondChunk.complete(StandardCharsets.UTF_8.encode("data: 2\n\n"));
+        assertEquals("data: 2", lines.next());
+        assertEquals("", lines.next());
+        assertFalse(lines.hasNext());
+        assertTrue(closed.get());
+    }
+
+    @Test
+    @SneakyThrows
+    void testStreamIsClosedOnceOnWriteError() {
+        int port = getFreePort();
+        AtomicInteger closed = new AtomicInteger();
+
+        when(configLoader.loadOrGetCached()).thenReturn(config);
+        when(config.getMockPort()).thenReturn(port);
+        when(config.getMinThreads()).thenReturn(8);
+        when(config.getMaxThreads()).thenReturn(250);
+        when(registry.match(eq(""), any(), eq("/path"))).thenReturn(new HttpHandlerMatch(handler, Map.of()));
+        when(handler.handleAsync(any())).thenReturn(CompletableFuture.completedFuture(response));
+        when(response.getStream()).thenReturn(new HttpResponseStream() {
+            @Override
+            public CompletableFuture<ByteBuffer> next() {
+                return CompletableFuture.completedFuture(null);
+            }
+
+            @Override
+            public void close() {
+                closed.incrementAndGet();
+            }
+        });
+        when(response.getCode()).thenReturn(200);
+        when(response.getHeaders()).thenThrow(new IllegalStateException());
+
+        subject.init();
+
+        assertEquals(500, send(HttpClient.newHttpClient(), "http://localhost:" + port + "/path").statusCode());
+        assertEquals(1, closed.get());
+    }
+
+    @Test
+    @SneakyThrows
+    void testHttp2Cleartext() {
+        HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_2)
+            .build();
+
+        int port = getFreePort();
+        String body = UUID.randomUUID().toString();
+
+        when(configLoader.loadOrGetCached()).thenReturn(config);
+        when(config.getMockPort()).thenReturn(port);
+        when(config.getMinThreads()).thenReturn(8);
+        when(config.getMaxThreads()).thenReturn(250);
+        when(config.isHttp2()).thenReturn(true);
+        when(config.getHttp2MaxConcurrentStreams()).thenReturn(16);
+        when(registry.match(eq(""), any(), eq("/path"))).thenReturn(new HttpHandlerMatch(handler, Map.of()));
+        when(handler.handleAsync(any())).thenReturn(CompletableFuture.completedFuture(response));
+        when(response.getBody()).thenReturn(body);
+        when(response.getCode()).thenReturn(200);
+
+        subject.init();
+
+        java.net.http.HttpRequest requestToServer = java.net.http.HttpRequest.newBuilder()
+            .uri(URI.create("http://localhost:" + port + "/path"))
+            .GET()
+            .build();
+
+        //the first request is upgraded to h2c, the next ones go over the same HTTP/2 connection
+        for (int i = 0; i < 2; i++) {
+            java.net.http.HttpResponse<String> responseFromServer =
+                client.send(requestToServer, java.net.http.HttpResponse.BodyHandlers.ofString());
+            assertEquals(HttpClient.Version.HTTP_2, responseFromServer.version());
+            assertEquals(body, responseFromServer.body());
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void testHttp2OverTls(@TempDir Path dir) {
+        Path keyStorePath = SelfSignedKeyStore.getOrCreate(dir);
+        KeyStore keyStore = KeyStore.getInstance("PKCS12");
+        try (InputStream input = Files.newInputStream(keyStorePath)) {
+            keyStore.load(input, SelfSignedKeyStore.PASSWORD.toCharArray());
+        }
+        TrustManagerFactory trustManagerFactory = TrustManagerFactory.getInstance(TrustManagerFactory.getDefaultAlgorithm());
+        trustManagerFactory.init(keyStore);
+        SSLContext sslContext = SSLContext.getInstance("TLS");
+        sslContext.init(null, trustManagerFactory.getTrustManagers(), null);
+
+        int port = getFreePort();
+        String body = UUID.randomUUID().toString();
+
+        when(configLoader.loadOrGetCached()).thenReturn(config);
+        when(config.getMockPort()).thenReturn(port);
+        when(config.getMinThreads()).thenReturn(8);
+        when(config.getMaxThreads()).thenReturn(250);
+        when(config.isHttp2()).thenReturn(true);
+        when(config.isTls()).thenReturn(true);
+        when(config.getTlsKeyStorePath()).thenReturn(keyStorePath.toString());
+        when(config.getTlsKeyStorePassword()).thenReturn(SelfSignedKeyStore.PASSWORD);
+        when(config.getHttp2MaxConcurrentStreams()).thenReturn(16);
+        when(registry.match(eq(""), any(), eq("/path"))).thenReturn(new HttpHandlerMatch(handler, Map.of()));
+        when(handler.handleAsync(any())).thenReturn(CompletableFuture.completedFuture(response));
+        when(response.getBody()).thenReturn(body);
+        when(response.getCode()).thenReturn(200);
+
+        subject.init();
+
+        java.net.http.HttpRequest requestToServer = java.net.http.HttpRequest.newBuilder()
+            .uri(URI.create("https://localhost:" + port + "/path"))
+            .GET()
+            .build();
+
+        for (HttpClient.Version version : HttpClient.Version.values()) {
+            HttpClient client = HttpClient.newBuilder()
+                .version(version)
+                .sslContext(sslContext)
+                .build();
+            java.net.http.HttpResponse<String> responseFromServer =
+                client.send(requestToServer, java.net.http.HttpResponse.BodyHandlers.ofString());
+            assertEquals(version, responseFromServer.version());
+            assertEquals(body, responseFromServer.body());
+        }
+    }
+
+    @Test
+    void testSelfSignedKeyStoreIsReused(@TempDir Path dir) throws Exception {
+        Path keyStorePath = SelfSignedKeyStore.getOrCreate(dir);
+        FileTime modified = Files.getLastModifiedTime(keyStorePath);
+
+        assertEquals(keyStorePath, SelfSignedKeyStore.getOrCreate(dir));
+        assertEquals(modified, Files.getLastModifiedTime(keyStorePath));
+    }
+
+    @Test
+    void testSelfSignedKeyStoreTimeout(@TempDir Path dir) throws Exception {
+        assertThrows(IllegalStateException.class, () -> SelfSignedKeyStore.getOrCreate(dir, 0));
+        try (Stream<Path> files = Files.list(dir)) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void testListeners() {
+        HttpClient client = HttpClient.newHttpClient();
+
+        int mockPort = getFreePort();
+        int ordersPort = getFreePort();
+
+        when(configLoader.loadOrGetCached()).thenReturn(config);
+        when(config.getMockPort()).thenReturn(mockPort);
+        when(config.getMinThreads()).thenReturn(8);
+        when(config.getMaxThreads()).thenReturn(250);
+        when(config.getListeners()).thenReturn(List.of(
+            MockListenerConfig.builder().hosts(List.of("127.0.0.1")).namespace("billing").build(),
+            MockListenerConfig.builder().port(ordersPort).hosts(List.of("LOCALHOST")).namespace("orders").build()));
+        when(registry.match(any(), any(), eq("/path"))).thenReturn(new HttpHandlerMatch(handler, Map.of()));
+        when(handler.handleAsync(any())).thenReturn(CompletableFuture.completedFuture(response));
+        when(response.getBody()).thenReturn("body");
+        when(response.getCode()).thenReturn(200);
+
+        subject.init();
+
+        assertEquals(200, send(client, "http://localhost:" + mockPort + "/path").statusCode());
+        verify(registry).match(eq(""), eq(HttpMethod.GET), eq("/path"));
+
+        assertEquals(200, send(client, "http://127.0.0.1:" + mockPort + "/path").statusCode());
+        verify(registry).match(eq("billing"), eq(HttpMethod.GET), eq("/path"));
+
+        assertEquals(200, send(client, "http://localhost:" + ordersPort + "/path").statusCode());
+        verify(registry).match(eq("orders"), eq(HttpMethod.GET), eq("/path"));
+
+        java.net.http.HttpResponse<String> notFound = send(client, "http://127.0.0.1:" + ordersPort + "/path");
+        assertEquals(404, notFound.statusCode());
+        assertEquals("There is no listener for host: 127.0.0.1", notFound.body());
+    }
+
+    /**
+     * Request reads the server request lazily, so it's read while the server request is alive
+     */
+    private void readRequest(HttpRequest request) {
+        request.getBody();
+        request.getVariables();
+        request.getPathVariables();
+        request.getHeaders();
+    }
+
+    /**
+     * Headers are compared only by a header every client sends
+     */
+    private boolean isSameRequest(HttpRequest expected, HttpRequest actual) {
+        return expected.getBody().equals(actual.getBody())
+            && expected.getVariables().equals(actual.getVariables())
+            && expected.getPathVariables().equals(actual.getPathVariables())
+            && actual.getHeaders().containsKey("host");
+    }
+
+    @SneakyThrows
+    private java.net.http.HttpResponse<String> send(HttpClient client, String uri) {
+        java.net.http.HttpRequest request = java.net.http.HttpRequest.newBuilder()
+            .uri(URI.create(uri))
+            .GET()
+            .build();
+        return client.send(request, java.net.http.HttpResponse.BodyHandlers.ofString());
+    }
+
     @SneakyThrows
     private int getFreePort() {
         try (var socket = new ServerSocket(0)) {
@@ -0,0 +1,71 @@
+package io.github.eoinkanro.fakerest.core.server.impl;
+
+import io.github.eoinkanro.fakerest.core.conf.Config;
+import io.github.eoinkanro.fakerest.core.conf.MockListenerConfig;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class MockListenersTest {
+
+    @Test
+    void testMockPort() {
+        MockListeners subject = new MockListeners(Config.builder().mockPort(8081).build());
+
+        assertEquals(Set.of(8081), subject.ports());
+        assertEquals("", subject.namespace(8081, "localhost"));
+        assertEquals("", subject.namespace(8081, null));
+        assertNull(subject.namespace(8082, "localhost"));
+    }
+
+    @Test
+    void testListeners() {
+        MockListeners subject = new MockListeners(Config.builder()
+            .mockPort(8081)
+            .listeners(List.of(
+                MockListenerConfig.builder().hosts(List.of("Billing.local")).namespace("billing").build(),
+                MockListenerConfig.builder().port(9001).namespace("orders").build(),
+                MockListenerConfig.builder().port(9002).hosts(List.of("users.local", "accounts.local")).namespace("users").build(),
+                MockListenerConfig.builder().port(9003).hosts(List.of("default.local")).build()))
+            .build());
+
+        assertEquals(Set.of(8081, 9001, 9002, 9003), subject.ports());
+        assertEquals("billing", subject.namespace(8081, "billing.LOCAL"));
+        assertEquals("", subject.namespace(8081, "other.local"));
+        assertEquals("orders", subject.namespace(9001, "other.local"));
+        assertEquals("users", subject.namespace(9002, "accounts.local"));
+        assertNull(subject.namespace(9002, "other.local"));
+        assertNull(subject.namespace(9002, null));
+        assertEquals("", subject.namespace(9003, "default.local"));
+    }
+
+    @Test
+    void testOverrideMockPort() {
+        MockListeners subject = new MockListeners(Config.builder()
+            .mockPort(8081)
+            .listeners(List.of(MockListenerConfig.builder().namespace("billing").build()))
+            .build());
+
+        assertEquals("billing", subject.namespace(8081, "localhost"));
+    }
+
+    @Test
+    void testConflicts() {
+        assertThrows(IllegalArgumentException.class, () -> new MockListeners(Config.builder()
+            .listeners(List.of(
+                MockListenerConfig.builder().port(9001).namespace("a").build(),
+                MockListenerConfig.builder().port(9001).namespace("b").build()))
+            .build()));
+        assertThrows(IllegalArgumentException.class, () -> new MockListeners(Config.builder()
+            .listeners(List.of(
+                MockListenerConfig.builder().hosts(List.of("a.local")).namespace("a").build(),
+                MockListenerConfig.builder().hosts(List.of("A.local")).namespace("b").build()))
+            .build()));
+    }
+
+}
@@ -9,15 +9,17 @@ import io.github.eoinkanro.fakerest.core.conf.impl.StaticHttpHandlerConfig;
 import io.github.eoinkanro.fakerest.core.handler.HttpHandler;
 import io.github.eoinkanro.fakerest.core.handler.HttpHandlerFactory;
 import io.github.eoinkanro.fakerest.core.handler.HttpHandlerRegistry;
+import io.github.eoinkanro.fakerest.core.handler.HttpHandlerRegistryBatch;
 import io.github.eoinkanro.fakerest.core.handler.RegisterException;
-import io.github.eoinkanro.fakerest.core.model.HttpMethod;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Stream;
@@ -97,13 +99,10 @@ class HandlerConfigServiceTest {
     @SneakyThrows
     void deleteHandler_found_unregistersAndSaves() {
         String id = UUID.randomUUID().toString();
-        HttpMethod method = HttpMethod.GET;
-        String path = UUID.randomUUID().toString();
 
         when(handlerRegistry.find(id)).thenReturn(handler);
         when(handler.getConfig()).thenReturn(handlerConfig);
-        when(handlerConfig.getMethod()).thenReturn(method);
-        when(handlerConfig.getPath()).thenReturn(path);
+        when(handlerConfig.getId()).thenReturn(id);
         when(configLoader.loadOrGetCached()).thenReturn(config);
         when(config.getHandlers()).thenReturn(handlersSet);
         when(handlersSet.stream()).thenReturn(Stream.of());
@@ -111,7 +110,7 @@ class HandlerConfigServiceTest {
         boolean result = subject.deleteHandler(id);
 
         assertTrue(result);
-        verify(handlerRegistry).unregister(method, path);
+        verify(handlerRegistry).unregister(id);
         verify(config).setHandlers(any());
         verify(configLoader).save(config);
     }
@@ -136,23 +135,14 @@ class HandlerConfigServiceTest {
     @SneakyThrows
     void updateHandler_success_returnsTrue() {
         String id = UUID.randomUUID().toString();
-        HttpMethod oldMethod = HttpMethod.GET;
-        String oldPath = "/" + UUID.randomUUID();
-        HttpMethod newMethod = HttpMethod.POST;
-        String newPath = "/" + UUID.randomUUID();
 
         AbstractHttpHandlerConfig oldConfig = mock(AbstractHttpHandlerConfig.class);
-        when(oldConfig.getMethod()).thenReturn(oldMethod);
-        when(oldConfig.getPath()).thenReturn(oldPath);
         when(oldConfig.getId()).thenReturn(id);
 
         when(handlerConfig.getId()).thenReturn(id);
-        when(handlerConfig.getMethod()).thenReturn(newMethod);
-        when(handlerConfig.getPath()).thenReturn(newPath);
 
         when(handlerRegistry.find(id)).thenReturn(handler);
         when(handler.getConfig()).thenReturn(oldConfig);
-        when(handlerRegistry.find(newMethod, newPath)).thenReturn(null);
         when(handlerFactory.create(handlerConfig)).thenReturn(newHandler);
         when(configLoader.loadOrGetCached()).thenReturn(config);
         when(config.getHandlers()).thenReturn(handlersSet);
@@ -161,8 +151,10 @@ class HandlerConfigServiceTest {
         boolean result = subject.updateHandler(handlerConfig);
 
         assertTrue(result);
-        verify(handlerRegistry).unregister(oldMethod, oldPath);
-        verify(handlerRegistry).register(newHandler);
+        ArgumentCaptor<HttpHandlerRegistryBatch> batch = ArgumentCaptor.forClass(HttpHandlerRegistryBatch.class);
+        verify(handlerRegistry).apply(batch.capture());
+        assertEquals(List.of(id), batch.getValue().getUnregistrationsById());
+        assertEquals(List.of(newHandler), batch.getValue().getRegistrations());
         verify(config).setHandlers(any());
         verify(handlersSet).add(handlerConfig);
         verify(configLoader).save(config);
@@ -172,29 +164,26 @@ class HandlerConfigServiceTest {
     @SneakyThrows
     void updateHandler_newPathConflicts_reRegistersOldAndReturnsFalse() {
         String id = UUID.randomUUID().toString();
-        HttpMethod oldMethod = HttpMethod.GET;
-        String oldPath = "/" + UUID.randomUUID();
-        HttpMethod newMethod = HttpMethod.POST;
-        String newPath = "/" + UUID.randomUUID();
 
         AbstractHttpHandlerConfig oldConfig = mock(AbstractHttpHandlerConfig.class);
-        when(oldConfig.getMethod()).thenReturn(oldMethod);
-        when(oldConfig.getPath()).thenReturn(oldPath);
+        when(oldConfig.getId()).thenReturn(id);
 
         when(handlerConfig.getId()).thenReturn(id);
-        when(handlerConfig.getMethod()).thenReturn(newMethod);
-        when(handlerConfig.getPath()).thenReturn(newPath);
 
         when(handlerRegistry.find(id)).thenReturn(handler);
         when(handler.getConfig()).thenReturn(oldConfig);
-        when(handlerRegistry.find(newMethod, newPath)).thenReturn(mock(HttpHandler.class));
         when(handlerFactory.create(handlerConfig)).thenReturn(newHandler);
+        doThrow(RegisterException.class).when(handlerRegistry).apply(any());
 
         boolean result = subject.updateHandler(handlerConfig);
 
         assertFalse(result);
-        verify(handlerRegistry).unregister(oldMethod, oldPath);
-        verify(handlerRegistry).register(handler);
+        //old handler is kept, because the rejected batch isn't applied
+        ArgumentCaptor<HttpHandlerRegistryBatch> batch = ArgumentCaptor.forClass(HttpHandlerRegistryBatch.class);
+        verify(handlerRegistry).apply(batch.capture());
+        assertEquals(List.of(id), batch.getValue().getUnregistrationsById());
+        assertEquals(List.of(newHandler), batch.getValue().getRegistrations());
+        verify(handlerRegistry, never()).unregister(any());
         verify(configLoader, never()).save(any());
     }
 
@@ -5,8 +5,22 @@ const DEFAULT_HANDLER_CONFIG = {
     type: 'STATIC',
     responseBody: '',
     responseCode: 200,
+    responseContentType: '',
     groovyCode: '',
-    routerPath: ''
+    compileStatic: false,
+    routerPath: '',
+    filePath: '',
+    contentType: '',
+    chunks: [],
+    intervalMillis: 1000,
+    loop: false,
+    events: false,
+    bodyType: 'PATTERN',
+    sizeBytes: 1048576,
+    pattern: '',
+    elementTemplate: '',
+    elements: 1000,
+    bytesPerSecond: 0
 };
 
 // ── Elements ──────────────────────────────────────────────
@@ -18,8 +32,22 @@ const dropdownHandlerMethod = document.getElementById('h-method');
 const dropdownHandlerType = document.getElementById('h-type');
 const textHandlerResponseBody = document.getElementById('h-response-body');
 const numberHandlerResponseCode = document.getElementById('h-response-code');
+const textHandlerResponseContentType = document.getElementById('h-response-content-type');
 const textHandlerGroovyCode = document.getElementById('h-groovy-code');
+const checkboxHandlerCompileStatic = document.getElementById('h-compile-static');
 const textHandlerRouterPath = document.getElementById('h-router-path');
+const textHandlerFilePath = document.getElementById('h-file-path');
+const textHandlerContentType = document.getElementById('h-content-type');
+const textHandlerChunks = document.getElementById('h-chunks');
+const numberHandlerIntervalMillis = document.getElementById('h-interval-millis');
+const checkboxHandlerLoop = document.getElementById('h-loop');
+const checkboxHandlerEvents = document.getElementById('h-events');
+const dropdownHandlerBodyType = document.getElementById('h-body-type');
+const numberHandlerSizeBytes = document.getElementById('h-size-bytes');
+const textHandlerPattern = document.getElementById('h-pattern');
+const textHandlerElementTemplate = document.getElementById('h-element-template');
+const numberHandlerElements = document.getElementById('h-elements');
+const numberHandlerBytesPerSecond = document.getElementById('h-bytes-per-second');
 const popupConfirmation = document.getElementById('settings-handler-confirmation');
 const confirmationText = document.getElementById('confirmation-text');
 
@@ -29,28 +57,43 @@ const popupSettingsServer = document.getElementById('settings-server');
 const numberServerMockPort = document.getElementById('s-mock-port');
 const numberServerUiPort = document.getElementById('s-ui-port');
 
-const fieldsStatic = document.querySelectorAll('.field-static');
-const fieldsGroovy = document.querySelectorAll('.field-groovy');
-const fieldsRouter = document.querySelectorAll('.field-router');
+// a field can belong to several types
+const fieldsTyped = document.querySelectorAll('.field-static, .field-groovy, .field-router, .field-file, .field-stream, .field-generator');
 
 const tableBody = document.getElementById('handlers-table-body');
 
 // ── State ─────────────────────────────────────────────────
 
 let currentConfig = null;
+let currentHandlerConfig = null;
 let _confirmAction = null;
 
 // ── Handlers ─────────────────────────────────────────────
 
 function openHandlerSettings(config) {
+    currentHandlerConfig = config;
     textHandlerId.value = config.id;
     textHandlerPath.value = config.path;
     dropdownHandlerMethod.value = config.method;
     dropdownHandlerType.value = config.type;
     textHandlerResponseBody.value = config.responseBody;
     numberHandlerResponseCode.value = config.responseCode;
+    textHandlerResponseContentType.value = config.responseContentType || '';
     textHandlerGroovyCode.value = config.groovyCode;
+    checkboxHandlerCompileStatic.checked = !!config.compileStatic;
     textHandlerRouterPath.value = config.routerPath;
+    textHandlerFilePath.value = config.filePath || '';
+    textHandlerContentType.value = config.contentType || '';
+    textHandlerChunks.value = (config.chunks || []).join('\n');
+    numberHandlerIntervalMillis.value = config.intervalMillis || 0;
+    checkboxHandlerLoop.checked = !!config.loop;
+    checkboxHandlerEvents.checked = !!config.events;
+    dropdownHandlerBodyType.value = config.bodyType || 'PATTERN';
+    numberHandlerSizeBytes.value = config.sizeBytes || 0;
+    textHandlerPattern.value = config.pattern || '';
+    textHandlerElementTemplate.value = config.elementTemplate || '';
+    numberHandlerElements.value = config.elements || 0;
+    numberHandlerBytesPerSecond.value = config.bytesPerSecond || '';
 
     refreshHandlerTypeFields(config.type);
     buttonHandlerDelete.style.display = config.id ? '' : 'none';
@@ -62,9 +105,7 @@ function closeHandlerSettings() {
 }
 
 function refreshHandlerTypeFields(type) {
-    fieldsStatic.forEach(el => el.style.display = type === 'STATIC' ? '' : 'none');
-    fieldsGroovy.forEach(el => el.style.display = type === 'GROOVY' ? '' : 'none');
-    fieldsRouter.forEach(el => el.style.display = type === 'ROUTER' ? '' : 'none');
+    fieldsTyped.forEach(el => el.style.display = el.classList.contains(`field-${type.toLowerCase()}`) ? '' : 'none');
 }
 
 // ── Server settings ───────────────────────────────────────
@@ -110,15 +151,31 @@ function openSaveConfirmation() {
 
 async function saveHandler() {
     const id = textHandlerId.value;
+    // keep fields that can be set only in config file
     const body = JSON.stringify({
+        ...currentHandlerConfig,
         id,
         path: textHandlerPath.value,
         method: dropdownHandlerMethod.value,
         type: dropdownHandlerType.value,
         responseBody: textHandlerResponseBody.value,
         responseCode: parseInt(numberHandlerResponseCode.value),
+        responseContentType: textHandlerResponseContentType.value || null,
         groovyCode: textHandlerGroovyCode.value,
-        routerPath: textHandlerRouterPath.value
+        compileStatic: checkboxHandlerCompileStatic.checked,
+        routerPath: textHandlerRouterPath.value,
+        filePath: textHandlerFilePath.value,
+        contentType: textHandlerContentType.value || null,
+        chunks: textHandlerChunks.value ? textHandlerChunks.value.split('\n') : [],
+        intervalMillis: parseInt(numberHandlerIntervalMillis.value) || 0,
+        loop: checkboxHandlerLoop.checked,
+        events: checkboxHandlerEvents.checked,
+        bodyType: dropdownHandlerBodyType.value,
+        sizeBytes: parseInt(numberHandlerSizeBytes.value) || 0,
+        pattern: textHandlerPattern.value || null,
+        elementTemplate: textHandlerElementTemplate.value || null,
+        elements: parseInt(numberHandlerElements.value) || 0,
+        bytesPerSecond: parseInt(numberHandlerBytesPerSecond.value) || 0
     });
 
     await fetch('/api/handler', {
@@ -165,13 +222,14 @@ async function loadConfig() {
 
     tableBody.innerHTML = '';
     (currentConfig.handlers || [])
-        .sort((a, b) => a.path.localeCompare(b.path) || a.method.localeCompare(b.method) || a.type.localeCompare(b.type))
+        .sort((a, b) => (a.namespace || '').localeCompare(b.namespace || '')
+            || a.path.localeCompare(b.path) || a.method.localeCompare(b.method) || a.type.localeCompare(b.type))
         .forEach(handler => {
             const row = document.createElement('tr');
             row.innerHTML = `
             <td><span class="badge badge-${handler.type.toLowerCase()}">${handler.type}</span></td>
             <td>${handler.method}</td>
-            <td>${handler.path}</td>
+            <td>${handler.namespace ? `<span class="badge badge-namespace">${handler.namespace}</span> ` : ''}${handler.path}</td>
             <td><button onclick="openHandlerSettings(currentConfig.handlers.find(h => h.id === '${handler.id}'))">Edit</button></td>
         `;
             tableBody.appendChild(row);